@@ -0,0 +1,193 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.repository.CodingSubmissionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the judge: a token bucket per user and
+ * endpoint, plus a cap on concurrent work behind each endpoint: a node-wide
+ * number of synchronous test runs sized to the judge pool, and a per-user
+ * number of submissions still waiting for a verdict. Rejections surface as
+ * {@link JudgeBusyException} (HTTP 429).
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControl {
+
+    public enum Endpoint {
+        SUBMIT, TEST
+    }
+
+    private static final List<CodingSubmission.SubmissionStatus> IN_FLIGHT = List.of(
+            CodingSubmission.SubmissionStatus.PENDING,
+            CodingSubmission.SubmissionStatus.COMPILING,
+            CodingSubmission.SubmissionStatus.RUNNING);
+
+    private final JudgeQueue judgeQueue;
+    private final CodingSubmissionRepository submissionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${judge.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${judge.admission.submit.burst:5}")
+    private int submitBurst;
+
+    @Value("${judge.admission.submit.per-minute:10}")
+    private int submitPerMinute;
+
+    @Value("${judge.admission.test.burst:10}")
+    private int testBurst;
+
+    @Value("${judge.admission.test.per-minute:30}")
+    private int testPerMinute;
+
+    @Value("${judge.admission.submit.max-in-flight:3}")
+    private int maxInFlightSubmits;
+
+    @Value("${judge.admission.max-concurrent-tests:0}")
+    private int maxConcurrentTests;
+
+    @Value("${judge.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Endpoint, Map<String, Counter>> counters = new EnumMap<>(Endpoint.class);
+    private Semaphore testSlots;
+
+    @PostConstruct
+    public void init() {
+        if (maxConcurrentTests <= 0) {
+            maxConcurrentTests = judgeQueue.getWorkers();
+        }
+        testSlots = new Semaphore(maxConcurrentTests);
+        for (Endpoint endpoint : Endpoint.values()) {
+            Map<String, Counter> byOutcome = new ConcurrentHashMap<>();
+            for (String outcome : new String[] {"accepted", "rate_limited", "concurrency_limited"}) {
+                byOutcome.put(outcome, Counter.builder("judge.admission")
+                        .tag("endpoint", endpoint.name().toLowerCase())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+            counters.put(endpoint, byOutcome);
+        }
+        meterRegistry.gauge("judge.admission.tests.in.flight", testSlots,
+                slots -> maxConcurrentTests - slots.availablePermits());
+    }
+
+    /** Charges one request against the user's bucket for the endpoint. */
+    public void checkRate(Endpoint endpoint, String username) {
+        if (!enabled) {
+            return;
+        }
+        int burst = endpoint == Endpoint.SUBMIT ? submitBurst : testBurst;
+        int perMinute = endpoint == Endpoint.SUBMIT ? submitPerMinute : testPerMinute;
+        TokenBucket bucket = buckets.computeIfAbsent(endpoint + ":" + username, key -> new TokenBucket(burst));
+        long waitMs = bucket.tryConsume(burst, perMinute);
+        if (waitMs > 0) {
+            count(endpoint, "rate_limited");
+            throw new JudgeBusyException("Too many requests, please slow down",
+                    (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs + 999)));
+        }
+    }
+
+    /**
+     * Admits a submission: rate check plus a cap on the user's submissions that
+     * have no verdict yet. A submission is judged after the request returns, so
+     * its slot is its unfinished row, counted in the database and thereby across
+     * nodes; two racing submits may both get in, the rate limit bounds that.
+     */
+    public void admitSubmit(String username) {
+        checkRate(Endpoint.SUBMIT, username);
+        if (!enabled) {
+            return;
+        }
+        if (maxInFlightSubmits > 0
+                && submissionRepository.countByUsernameAndStatusIn(username, IN_FLIGHT) >= maxInFlightSubmits) {
+            count(Endpoint.SUBMIT, "concurrency_limited");
+            throw new JudgeBusyException("Your earlier submissions are still being judged, please retry shortly",
+                    retryAfterSeconds);
+        }
+        count(Endpoint.SUBMIT, "accepted");
+    }
+
+    /**
+     * Admits a synchronous test run: rate check plus one of the node's test
+     * slots. Close the permit when the run is over.
+     */
+    public Permit admitTest(String username) {
+        checkRate(Endpoint.TEST, username);
+        if (!enabled) {
+            return () -> { };
+        }
+        if (!testSlots.tryAcquire()) {
+            count(Endpoint.TEST, "concurrency_limited");
+            throw new JudgeBusyException("Judge is busy, please retry shortly", retryAfterSeconds);
+        }
+        count(Endpoint.TEST, "accepted");
+        return testSlots::release;
+    }
+
+    private void count(Endpoint endpoint, String outcome) {
+        counters.get(endpoint).get(outcome).increment();
+    }
+
+    // A full bucket carries no state worth keeping
+    @Scheduled(fixedDelayString = "${judge.admission.eviction-interval-ms:300000}")
+    public void evictIdle() {
+        buckets.entrySet().removeIf(entry -> {
+            boolean submit = entry.getKey().startsWith(Endpoint.SUBMIT + ":");
+            return entry.getValue().isFull(submit ? submitBurst : testBurst, submit ? submitPerMinute : testPerMinute);
+        });
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private TokenBucket(int burst) {
+            this.tokens = burst;
+        }
+
+        // Returns 0 when a token was taken, otherwise how long until one is available
+        private synchronized long tryConsume(int burst, int perMinute) {
+            refill(burst, perMinute);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return perMinute <= 0 ? 60_000 : (long) Math.ceil((1 - tokens) * 60_000.0 / perMinute);
+        }
+
+        private synchronized boolean isFull(int burst, int perMinute) {
+            refill(burst, perMinute);
+            return tokens >= burst;
+        }
+
+        private void refill(int burst, int perMinute) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * perMinute / 60_000_000_000.0);
+            lastRefillNanos = now;
+        }
+    }
+}
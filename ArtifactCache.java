@@ -0,0 +1,296 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed on-disk cache of compiled submissions. Entries are keyed by
+ * a SHA-256 of (language, code), so identical code is compiled once no matter
+ * how many times it is run or submitted. Compile failures are cached as well,
+ * except timeouts, which may just mean the node was busy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtifactCache {
+
+    private static final String SUCCESS_MARKER = ".compiled";
+    private static final String ERROR_MARKER = ".compile-error";
+    private static final int COMPILER_OUTPUT_LIMIT = 16 * 1024;
+    private static final long DRAIN_GRACE_MS = 1000;
+
+    private final JudgeThreads judgeThreads;
+    private final CgroupSandbox cgroupSandbox;
+    private final LanguageWorkerPool workerPool;
+
+    @Value("${judge.artifact-cache.dir:${java.io.tmpdir}/mockmate-artifacts}")
+    private String cacheDir;
+
+    @Value("${judge.artifact-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${judge.compile-timeout-seconds:30}")
+    private int compileTimeoutSeconds;
+
+    private Path root;
+
+    private final Map<String, CompletableFuture<CompiledArtifact>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Files.createDirectories(Paths.get(cacheDir));
+        log.info("Artifact cache at {}", root);
+    }
+
+    public CompiledArtifact resolve(CodingSubmission.ProgrammingLanguage language, String code) {
+        String key = JudgeHashing.sha256Hex(language.name(), code);
+        Path entry = root.resolve(key);
+
+        CompiledArtifact cached = readEntry(language, entry);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Concurrent requests for the same code wait on a single compilation
+        CompletableFuture<CompiledArtifact> mine = new CompletableFuture<>();
+        CompletableFuture<CompiledArtifact> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            CompiledArtifact artifact = readEntry(language, entry);
+            if (artifact == null) {
+                artifact = compile(language, code, entry);
+            }
+            mine.complete(artifact);
+            return artifact;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Marks an artifact resolved earlier as in use again, so the sweep leaves it
+     * alone for a while. False if it is gone (or was never cached) and has to be
+     * resolved again.
+     */
+    boolean retain(CompiledArtifact artifact) {
+        Path entry = artifact.getDirectory();
+        if (!artifact.isCached()
+                || !Files.exists(entry.resolve(artifact.isSuccess() ? SUCCESS_MARKER : ERROR_MARKER))) {
+            return false;
+        }
+        try {
+            touch(entry);
+            return true;
+        } catch (IOException e) {
+            // Deleted between the check and the touch
+            return false;
+        }
+    }
+
+    private CompiledArtifact readEntry(CodingSubmission.ProgrammingLanguage language, Path entry) {
+        try {
+            if (Files.exists(entry.resolve(SUCCESS_MARKER))) {
+                touch(entry);
+                return new CompiledArtifact(language, entry, true, "", true);
+            }
+            if (Files.exists(entry.resolve(ERROR_MARKER))) {
+                touch(entry);
+                String output = Files.readString(entry.resolve(ERROR_MARKER));
+                return new CompiledArtifact(language, entry, false, output, true);
+            }
+        } catch (IOException e) {
+            log.warn("Unreadable artifact cache entry {}", entry, e);
+        }
+        return null;
+    }
+
+    private CompiledArtifact compile(CodingSubmission.ProgrammingLanguage language, String code, Path entry) {
+        Path staging = root.resolve(entry.getFileName() + ".tmp-" + UUID.randomUUID());
+        Process proc = null;
+        CgroupSandbox.Cgroup cgroup = null;
+        try {
+            Files.createDirectories(staging);
+            Path source = staging.resolve(getFileName(language));
+            Files.write(source, code.getBytes(StandardCharsets.UTF_8));
+
+            // judge.in-jvm-java: the compiler of a warm worker JVM instead of a javac process
+            LanguageWorker.WorkerResult compiled = language == CodingSubmission.ProgrammingLanguage.JAVA
+                    ? workerPool.compileJava(source, TimeUnit.SECONDS.toMillis(compileTimeoutSeconds),
+                            COMPILER_OUTPUT_LIMIT)
+                    : null;
+            if (compiled != null && compiled.isTimedOut()) {
+                deleteQuietly(staging);
+                return new CompiledArtifact(language, entry, false, "Compilation timeout", false);
+            }
+            List<String> command = compiled != null ? null : getCompileCommand(language, source);
+            boolean success = compiled == null || compiled.isSuccess();
+            String output = compiled != null ? compiled.getOutput() : "";
+            if (command != null) {
+                // Compilers get the same limits as solutions; a template bomb is untrusted input too
+                cgroup = cgroupSandbox.create();
+                ProcessBuilder pb = new ProcessBuilder(cgroup != null ? cgroup.wrap(command) : command);
+                pb.directory(staging.toFile());
+                pb.redirectErrorStream(true);
+                proc = pb.start();
+                // Drain on an I/O thread so a hung compiler cannot keep us from reaching the timeout
+                OutputDrain drain = new OutputDrain(proc.getInputStream(), COMPILER_OUTPUT_LIMIT, () -> { });
+                judgeThreads.io().execute(drain);
+                if (!proc.waitFor(compileTimeoutSeconds, TimeUnit.SECONDS)) {
+                    kill(proc, cgroup);
+                    deleteQuietly(staging);
+                    return new CompiledArtifact(language, entry, false, "Compilation timeout", false);
+                }
+                output = drain.await(DRAIN_GRACE_MS).trim();
+                success = proc.exitValue() == 0;
+                if (cgroup != null && cgroup.wasOomKilled()) {
+                    output = "Compilation exceeded the memory limit";
+                    success = false;
+                }
+            }
+
+            Files.writeString(staging.resolve(success ? SUCCESS_MARKER : ERROR_MARKER), output);
+            publish(staging, entry);
+            return new CompiledArtifact(language, entry, success, output, false);
+        } catch (IOException e) {
+            deleteQuietly(staging);
+            throw new IllegalStateException("Compilation could not be started: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            if (proc != null) {
+                kill(proc, cgroup);
+            }
+            Thread.currentThread().interrupt();
+            deleteQuietly(staging);
+            throw new IllegalStateException("Compilation interrupted", e);
+        } finally {
+            if (cgroup != null) {
+                cgroup.remove();
+            }
+        }
+    }
+
+    private void kill(Process proc, CgroupSandbox.Cgroup cgroup) {
+        if (cgroup != null) {
+            cgroup.killAll();
+        }
+        JudgeThreads.killTree(proc);
+    }
+
+    private void publish(Path staging, Path entry) throws IOException {
+        try {
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+            // Another node or process got there first; its entry is equivalent
+            deleteQuietly(staging);
+        } catch (IOException e) {
+            if (Files.exists(entry)) {
+                deleteQuietly(staging);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private List<String> getCompileCommand(CodingSubmission.ProgrammingLanguage lang, Path source) {
+        return switch (lang) {
+            case JAVA -> List.of("javac", "-encoding", "UTF-8", "-d", source.getParent().toString(), source.toString());
+            case CPP -> List.of("g++", "-O2", "-std=c++17", "-o",
+                    source.getParent().resolve("solution").toString(), source.toString());
+            case PYTHON, JAVASCRIPT -> null;
+        };
+    }
+
+    static String getFileName(CodingSubmission.ProgrammingLanguage lang) {
+        return switch (lang) {
+            case JAVA -> "Solution.java";
+            case PYTHON -> "solution.py";
+            case CPP -> "solution.cpp";
+            case JAVASCRIPT -> "solution.js";
+        };
+    }
+
+    /**
+     * Drops the least recently used entries once the cache grows past its limit.
+     * Entries used in the last few minutes are never removed, so running
+     * artifacts are not pulled from under a test case.
+     */
+    @Scheduled(fixedDelayString = "${judge.artifact-cache.sweep-interval-ms:600000}")
+    public void sweep() {
+        try (var stream = Files.list(root)) {
+            List<Path> entries = stream
+                    .filter(p -> !p.getFileName().toString().contains(".tmp-"))
+                    .sorted(Comparator.comparing(this::lastUsed))
+                    .toList();
+            int excess = entries.size() - maxEntries;
+            Instant cutoff = Instant.now().minus(Duration.ofMinutes(10));
+            for (int i = 0; i < excess; i++) {
+                Path entry = entries.get(i);
+                if (lastUsed(entry).toInstant().isBefore(cutoff)) {
+                    deleteQuietly(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Artifact cache sweep failed", e);
+        }
+    }
+
+    private FileTime lastUsed(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private void touch(Path entry) throws IOException {
+        Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+    }
+
+    private CompiledArtifact await(CompletableFuture<CompiledArtifact> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Compilation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Compilation failed", e.getCause());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try (var stream = Files.walk(path)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+}
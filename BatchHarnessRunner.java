@@ -0,0 +1,142 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiPredicate;
+
+/**
+ * Runs every test case of a submission through one {@link WorkerHarness}
+ * process, so a submission costs one runtime start instead of one per case.
+ * The harness resets solution state between frames (fresh classloader for
+ * Java, a forked child for Python, fresh module execution for JavaScript). If a case kills the
+ * harness, a new one is started for the remaining cases. Like the worker
+ * pool, it stays off when the cgroup sandbox is on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchHarnessRunner {
+
+    private final CgroupSandbox cgroupSandbox;
+
+    @Value("${judge.batch-harness.enabled:false}")
+    private boolean enabled;
+
+    @Value("${judge.batch-harness.dir:${java.io.tmpdir}/mockmate-batch-harness}")
+    private String harnessDir;
+
+    @Value("${judge.time-limit-ms:10000}")
+    private long timeLimitMs;
+
+    @Value("${judge.output-limit-bytes:1048576}")
+    private int outputLimitBytes;
+
+    private Path harnessPath;
+    private ScheduledExecutorService watchdog;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (cgroupSandbox.isEnabled()) {
+            log.warn("Batch harness disabled: judge.cgroup.enabled runs every solution in its own cgroup");
+            enabled = false;
+            return;
+        }
+        try {
+            harnessPath = Paths.get(harnessDir);
+            WorkerHarness.install(harnessPath);
+        } catch (IOException e) {
+            log.warn("Batch harness disabled, harness could not be installed: {}", e.getMessage());
+            enabled = false;
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enabled = false;
+            return;
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "judge-batch-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Batch harness enabled");
+    }
+
+    public boolean supports(CompiledArtifact artifact) {
+        return enabled && WorkerHarness.supports(artifact.getLanguage());
+    }
+
+    /**
+     * Returns one result per input, in order. An entry is {@code null} when the
+     * harness died while running that case; the caller should re-run it in a
+     * dedicated process so the verdict reflects the solution, not the harness.
+     */
+    List<ExecutionResult> runAll(CompiledArtifact artifact, Path workDir, List<String> inputs) {
+        return runAll(artifact, workDir, inputs, (index, result) -> false);
+    }
+
+    /**
+     * Like {@link #runAll(CompiledArtifact, Path, List)}, but stops after the first
+     * result that matches {@code stopOn}, so the returned list may be shorter than
+     * {@code inputs}. Crashed ({@code null}) entries never stop the run.
+     */
+    List<ExecutionResult> runAll(CompiledArtifact artifact, Path workDir, List<String> inputs,
+                                 BiPredicate<Integer, ExecutionResult> stopOn) {
+        CodingSubmission.ProgrammingLanguage language = artifact.getLanguage();
+        List<ExecutionResult> results = new ArrayList<>(inputs.size());
+        LanguageWorker harness = null;
+        try {
+            for (String input : inputs) {
+                if (Thread.currentThread().isInterrupted()) {
+                    results.add(new ExecutionResult(false, "", "Execution interrupted"));
+                    continue;
+                }
+                if (harness == null || !harness.isUsable()) {
+                    if (harness != null) {
+                        harness.destroy();
+                    }
+                    harness = LanguageWorker.start(language, harnessPath, workDir, List.of());
+                }
+                LanguageWorker.WorkerResult result = harness.run(artifact.getDirectory(), input,
+                        timeLimitMs, outputLimitBytes, watchdog);
+                ExecutionResult executed = result.isCrashed() ? null : result.toExecutionResult();
+                results.add(executed);
+                if (executed != null && stopOn.test(results.size() - 1, executed)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not start {} batch harness: {}", language, e.getMessage());
+            while (results.size() < inputs.size()) {
+                results.add(null);
+            }
+        } finally {
+            if (harness != null) {
+                harness.destroy();
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.mockmate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Linux cgroup v2 isolation for judge processes. Each run gets its own child
+ * cgroup with cpu.max, memory.max and pids.max limits, and its exact CPU and
+ * peak memory are read back from the cgroup when it finishes. When cgroup v2
+ * is not mounted or not delegated to us, {@link #create()} returns
+ * {@code null} and callers run the process as before.
+ */
+@Component
+@Slf4j
+public class CgroupSandbox {
+
+    @Value("${judge.cgroup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${judge.cgroup.root:/sys/fs/cgroup/mockmate-judge}")
+    private String rootDir;
+
+    @Value("${judge.cgroup.cpu-max:100000 100000}")
+    private String cpuMax;
+
+    @Value("${judge.cgroup.memory-max-mb:256}")
+    private long memoryMaxMb;
+
+    @Value("${judge.cgroup.pids-max:64}")
+    private int pidsMax;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!Files.exists(Paths.get("/sys/fs/cgroup/cgroup.controllers"))) {
+                throw new IOException("cgroup v2 is not mounted at /sys/fs/cgroup");
+            }
+            root = Files.createDirectories(Paths.get(rootDir));
+            // Child cgroups can only use controllers their parent delegates
+            Files.writeString(root.resolve("cgroup.subtree_control"), "+cpu +memory +pids");
+            log.info("cgroup v2 sandbox enabled under {}", root);
+        } catch (IOException | RuntimeException e) {
+            log.warn("cgroup v2 sandbox unavailable, using plain processes: {}", e.getMessage());
+            enabled = false;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates a fresh cgroup for one run, or returns {@code null} when the
+     * sandbox is disabled or the cgroup could not be set up.
+     */
+    Cgroup create() {
+        if (!enabled) {
+            return null;
+        }
+        Path dir = root.resolve("run-" + UUID.randomUUID());
+        try {
+            Files.createDirectory(dir);
+            Files.writeString(dir.resolve("cpu.max"), cpuMax);
+            Files.writeString(dir.resolve("memory.max"), Long.toString(memoryMaxMb * 1024 * 1024));
+            Files.writeString(dir.resolve("pids.max"), Integer.toString(pidsMax));
+            writeIfPresent(dir.resolve("memory.swap.max"), "0");
+            return new Cgroup(dir);
+        } catch (IOException e) {
+            log.warn("Could not create cgroup {}, running unsandboxed: {}", dir, e.getMessage());
+            new Cgroup(dir).remove();
+            return null;
+        }
+    }
+
+    private static void writeIfPresent(Path file, String value) throws IOException {
+        if (Files.exists(file)) {
+            Files.writeString(file, value);
+        }
+    }
+
+    static class Cgroup {
+        private final Path dir;
+
+        Cgroup(Path dir) {
+            this.dir = dir;
+        }
+
+        /**
+         * Wraps a command so the process joins this cgroup before it execs,
+         * which means nothing it forks can escape the limits.
+         */
+        List<String> wrap(List<String> command) {
+            List<String> wrapped = new ArrayList<>();
+            wrapped.add("/bin/sh");
+            wrapped.add("-c");
+            wrapped.add("echo $$ > \"$0\" && exec \"$@\"");
+            wrapped.add(dir.resolve("cgroup.procs").toString());
+            wrapped.addAll(command);
+            return wrapped;
+        }
+
+        Long cpuTimeMs() {
+            try {
+                for (String line : Files.readAllLines(dir.resolve("cpu.stat"))) {
+                    if (line.startsWith("usage_usec ")) {
+                        return Long.parseLong(line.substring(11).trim()) / 1000;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.debug("No cpu.stat for {}", dir);
+            }
+            return null;
+        }
+
+        Long peakMemoryKb() {
+            try {
+                // memory.peak needs Linux 5.19+
+                return Long.parseLong(Files.readString(dir.resolve("memory.peak")).trim()) / 1024;
+            } catch (IOException | NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean wasOomKilled() {
+            try {
+                for (String line : Files.readAllLines(dir.resolve("memory.events"))) {
+                    if (line.startsWith("oom_kill ")) {
+                        return Long.parseLong(line.substring(9).trim()) > 0;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.debug("No memory.events for {}", dir);
+            }
+            return false;
+        }
+
+        /**
+         * Kills every process in the cgroup, including anything a fork bomb left behind.
+         */
+        void killAll() {
+            try {
+                writeIfPresent(dir.resolve("cgroup.kill"), "1");
+            } catch (IOException e) {
+                log.debug("cgroup.kill failed for {}", dir, e);
+            }
+        }
+
+        void remove() {
+            killAll();
+            // rmdir only succeeds once the kernel has reaped every member
+            for (int attempt = 0; attempt < 50 && Files.exists(dir); attempt++) {
+                try {
+                    Files.delete(dir);
+                } catch (IOException e) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (Files.exists(dir)) {
+                log.warn("Leaked cgroup {}", dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission.ProgrammingLanguage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Winnowing fingerprints of source code (Schleimer, Wilkerson and Aiken,
+ * "Winnowing: Local Algorithms for Document Fingerprinting"). The code is
+ * first reduced to a token stream in which comments and whitespace are gone,
+ * every identifier is {@code V}, every literal is {@code S} or {@code N} and
+ * only keywords and punctuation keep their text, so renaming variables or
+ * editing comments and strings changes nothing. Each run of {@code k} tokens
+ * is hashed, and in every window of {@code w} consecutive hashes the smallest
+ * one is kept. Any shared run of at least {@code k + w - 1} tokens is
+ * guaranteed to produce a shared fingerprint.
+ *
+ * <p>Comment syntax follows the submission's language: {@code #} comments in
+ * Python, {@code //} and {@code /* *\/} everywhere else. C++ preprocessor
+ * lines are dropped like comments (boilerplate anyway); anywhere else a
+ * {@code #} is punctuation, such as a JavaScript {@code #private} field.
+ */
+final class CodeFingerprints {
+
+    private static final Set<String> KEYWORDS = Set.of(
+            // control flow and declarations common to the judge languages
+            "if", "else", "for", "while", "do", "switch", "case", "default", "break", "continue", "return",
+            "try", "catch", "finally", "throw", "throws", "new", "delete", "class", "struct", "enum",
+            "interface", "extends", "implements", "static", "final", "const", "public", "private", "protected",
+            "void", "int", "long", "short", "byte", "char", "float", "double", "boolean", "bool", "auto",
+            "unsigned", "signed", "true", "false", "null", "nullptr", "None", "True", "False", "this", "self",
+            "super", "import", "from", "as", "package", "using", "namespace", "template", "typename",
+            // Python
+            "def", "lambda", "in", "is", "not", "and", "or", "elif", "pass", "yield", "with", "global",
+            "nonlocal", "del", "raise", "except", "assert", "async", "await",
+            // JavaScript
+            "function", "var", "let", "typeof", "instanceof", "of", "undefined", "export");
+
+    private static final long BASE = 1_000_003L;
+
+    private CodeFingerprints() {
+    }
+
+    /** Distinct fingerprints of the code, sorted; empty when it has fewer than {@code k} tokens. */
+    static long[] of(String code, ProgrammingLanguage language, int k, int window) {
+        int[] tokens = tokenize(code == null ? "" : code, language);
+        if (tokens.length < k) {
+            return new long[0];
+        }
+
+        long[] hashes = new long[tokens.length - k + 1];
+        long power = 1;
+        for (int i = 0; i < k - 1; i++) {
+            power *= BASE;
+        }
+        long rolling = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (i >= k) {
+                rolling -= tokens[i - k] * power;
+            }
+            rolling = rolling * BASE + tokens[i];
+            if (i >= k - 1) {
+                hashes[i - k + 1] = mix(rolling);
+            }
+        }
+
+        // In each window keep the rightmost minimum; record it only when the choice moves
+        long[] picked = new long[hashes.length];
+        int count = 0;
+        int last = -1;
+        int span = Math.min(window, hashes.length);
+        for (int start = 0; start + span <= hashes.length; start++) {
+            int min = start;
+            for (int i = start + 1; i < start + span; i++) {
+                if (hashes[i] <= hashes[min]) {
+                    min = i;
+                }
+            }
+            if (min != last) {
+                picked[count++] = hashes[min];
+                last = min;
+            }
+        }
+        return Arrays.stream(picked, 0, count).sorted().distinct().toArray();
+    }
+
+    static int[] tokenize(String code, ProgrammingLanguage language) {
+        boolean python = language == ProgrammingLanguage.PYTHON;
+        List<String> tokens = new ArrayList<>();
+        int n = code.length();
+        int i = 0;
+        boolean lineStart = true;
+        while (i < n) {
+            char c = code.charAt(i);
+            if (Character.isWhitespace(c)) {
+                lineStart |= c == '\n';
+                i++;
+                continue;
+            }
+            boolean lineComment = python
+                    ? c == '#'
+                    : (c == '/' && i + 1 < n && code.charAt(i + 1) == '/')
+                            || (c == '#' && lineStart && language == ProgrammingLanguage.CPP);
+            lineStart = false;
+            if (lineComment) {
+                while (i < n && code.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (!python && c == '/' && i + 1 < n && code.charAt(i + 1) == '*') {
+                int end = code.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (c == '"' || c == '\'' || c == '`') {
+                i = skipString(code, i);
+                tokens.add("S");
+            } else if (Character.isDigit(c)) {
+                while (i < n && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '.'
+                        || code.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add("N");
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < n && Character.isJavaIdentifierPart(code.charAt(i))) {
+                    i++;
+                }
+                String word = code.substring(start, i);
+                tokens.add(KEYWORDS.contains(word) ? word : "V");
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens.stream().mapToInt(String::hashCode).toArray();
+    }
+
+    // Handles escapes and Python's triple-quoted strings; an unterminated string runs to the end
+    private static int skipString(String code, int start) {
+        char quote = code.charAt(start);
+        String triple = String.valueOf(quote).repeat(3);
+        if (quote != '`' && code.startsWith(triple, start)) {
+            int end = code.indexOf(triple, start + 3);
+            return end < 0 ? code.length() : end + 3;
+        }
+        int i = start + 1;
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n' && quote != '`') {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return code.length();
+    }
+
+    // Spreads polynomial hashes over the whole range so the window minimum is unbiased (murmur3 finalizer)
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -2,14 +2,21 @@ package com.mockmate.controller;
 
 import com.mockmate.dto.CodingSubmissionDto;
 import com.mockmate.dto.SubmitCodeRequest;
+import com.mockmate.service.AdmissionControl;
 import com.mockmate.service.CodingEvaluationService;
+import com.mockmate.service.JudgeBusyException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +27,7 @@ import java.util.Map;
 public class CodingController {
 
     private final CodingEvaluationService codingEvaluationService;
+    private final AdmissionControl admissionControl;
 
     @PostMapping("/submit")
     @PreAuthorize("hasAnyRole('STUDENT', 'MENTOR', 'ADMIN')")
@@ -27,6 +35,7 @@ public class CodingController {
             @Valid @RequestBody SubmitCodeRequest request,
             Authentication authentication) {
         String username = authentication.getName();
+        admissionControl.admitSubmit(username);
         var submission = codingEvaluationService.submitCode(request, username);
         return ResponseEntity.ok(CodingSubmissionDto.fromCodingSubmission(submission));
     }
@@ -55,6 +64,15 @@ public class CodingController {
         return ResponseEntity.ok(CodingSubmissionDto.fromCodingSubmission(submission));
     }
 
+    @GetMapping(value = "/submissions/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('STUDENT', 'MENTOR', 'ADMIN')")
+    public SseEmitter streamSubmissionEvents(
+            @PathVariable Long id,
+            Authentication authentication) {
+        String username = authentication.getName();
+        return codingEvaluationService.streamEvents(id, username);
+    }
+
     @PostMapping("/test")
     @PreAuthorize("hasAnyRole('STUDENT', 'MENTOR', 'ADMIN')")
     public ResponseEntity<Map<String, Object>> testCode(
@@ -64,7 +82,20 @@ public class CodingController {
         String language = request.get("language");
         String input = request.get("input");
         
-        Map<String, Object> result = codingEvaluationService.testCode(code, language, input);
-        return ResponseEntity.ok(result);
+        try (AdmissionControl.Permit permit = admissionControl.admitTest(authentication.getName())) {
+            Map<String, Object> result = codingEvaluationService.testCode(code, language, input, authentication.getName());
+            return ResponseEntity.ok(result);
+        }
+    }
+
+    @ExceptionHandler(JudgeBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleJudgeBusy(JudgeBusyException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
     }
 }
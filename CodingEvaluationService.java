@@ -3,28 +3,32 @@ package com.mockmate.service;
 import com.mockmate.dto.SubmitCodeRequest;
 import com.mockmate.model.CodingSubmission;
 import com.mockmate.model.TestCase;
+import com.mockmate.model.TestCaseResult;
 import com.mockmate.model.Question;
 import com.mockmate.model.InterviewSession;
+import com.mockmate.model.JudgePriority;
 import com.mockmate.model.User;
 import com.mockmate.repository.CodingSubmissionRepository;
 import com.mockmate.repository.UserRepository;
 import com.mockmate.repository.QuestionRepository;
 import com.mockmate.repository.InterviewSessionRepository;
+import com.mockmate.repository.TestCaseRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -35,8 +39,42 @@ public class CodingEvaluationService {
     private final UserRepository userRepository;
     private final QuestionRepository questionRepository;
     private final InterviewSessionRepository interviewSessionRepository;
+    private final TestCaseRepository testCaseRepository;
+    private final JudgeQueue judgeQueue;
+    private final TestCaseExecutor testCaseExecutor;
+    private final ArtifactCache artifactCache;
+    private final LanguageWorkerPool workerPool;
+    private final BatchHarnessRunner batchHarnessRunner;
+    private final VerdictCache verdictCache;
+    private final ProcessRunner processRunner;
+    private final WorkspaceManager workspaceManager;
+    private final SubmissionEvents submissionEvents;
+    private final SubmissionStatusRegistry statusRegistry;
+    private final DistributedJudge distributedJudge;
+    private final TestCaseBlobStore testCaseBlobStore;
+    private final JudgeMetrics judgeMetrics;
+    private final ScratchSessions scratchSessions;
+    private final SimilarityIndex similarityIndex;
+
+    @Value("${judge.parallel-test-cases:true}")
+    private boolean parallelTestCases;
+
+    @Value("${judge.max-parallel-per-submission:4}")
+    private int maxParallelPerSubmission;
+
+    @Value("${judge.default-evaluation-policy:RUN_ALL}")
+    private CodingSubmission.EvaluationPolicy defaultEvaluationPolicy;
+
+    @Value("${judge.comparison.default-tolerance:1e-6}")
+    private double defaultFloatTolerance;
+
+    @PostConstruct
+    public void registerJudgeHandler() {
+        distributedJudge.setHandler(this::evaluateQueued);
+    }
 
-    @Transactional
+    // Deliberately not @Transactional: the PENDING row is committed by save() before the
+    // job is queued, and evaluation runs on a judge worker without holding a connection.
     public CodingSubmission submitCode(SubmitCodeRequest request, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -56,182 +94,390 @@ public class CodingEvaluationService {
         submission.setInterviewSession(interviewSession);
         submission.setCode(request.getCode());
         submission.setLanguage(request.getLanguage());
+        submission.setEvaluationPolicy(resolvePolicy(request, question, interviewSession));
         submission.setStatus(CodingSubmission.SubmissionStatus.PENDING);
         submission.setSubmittedAt(LocalDateTime.now());
 
         submission = submissionRepository.save(submission);
 
-        // For now, synchronously evaluate
-        evaluateCodeAsync(submission);
+        // Live interviews are on the clock; practice submissions can wait
+        JudgePriority priority = interviewSession != null ? JudgePriority.INTERVIEW : JudgePriority.PRACTICE;
+        CodingSubmission queued = submission;
+        try {
+            if (distributedJudge.isEnabled()) {
+                distributedJudge.enqueue(queued.getId(), priority);
+            } else {
+                judgeQueue.submit(priority, () -> evaluateCodeAsync(queued));
+            }
+        } catch (JudgeBusyException e) {
+            submissionRepository.delete(submission);
+            throw e;
+        }
 
         return submission;
     }
 
+    // An explicit request wins; interview submissions are scored on every case unless asked otherwise
+    private CodingSubmission.EvaluationPolicy resolvePolicy(SubmitCodeRequest request, Question question,
+                                                            InterviewSession interviewSession) {
+        if (request.getEvaluationPolicy() != null) {
+            return request.getEvaluationPolicy();
+        }
+        if (interviewSession != null) {
+            return CodingSubmission.EvaluationPolicy.RUN_ALL;
+        }
+        return question.getEvaluationPolicy() != null ? question.getEvaluationPolicy() : defaultEvaluationPolicy;
+    }
+
+    // Entry point for jobs claimed from the distributed queue; a job may be delivered more than once
+    private void evaluateQueued(long submissionId) {
+        submissionRepository.findById(submissionId)
+                .filter(submission -> !SubmissionEvents.isTerminal(submission.getStatus()))
+                .ifPresent(this::evaluateCodeAsync);
+    }
+
     private void evaluateCodeAsync(CodingSubmission submission) {
+        long start = System.nanoTime();
         try {
-            evaluateCode(submission);
+            evaluateCode(submission, true);
+            saveAndPublish(submission);
         } catch (Exception e) {
             log.error("Error evaluating code for submission {}", submission.getId(), e);
             submission.setStatus(CodingSubmission.SubmissionStatus.FAILED);
             submission.setRuntimeError(e.getMessage());
-            submissionRepository.save(submission);
+            saveAndPublish(submission);
         }
+        judgeMetrics.recordEvaluation(submission, System.nanoTime() - start);
     }
 
-    private void evaluateCode(CodingSubmission submission) {
-        submission.setStatus(CodingSubmission.SubmissionStatus.COMPILING);
-        submissionRepository.save(submission);
+    /**
+     * Fills in the submission's verdict without storing it; the caller decides
+     * whether and how to. Only a {@code live} evaluation shows progress: the
+     * COMPILING and RUNNING statuses and per-case events. Throws on a system error.
+     */
+    private void evaluateCode(CodingSubmission submission, boolean live) throws IOException, InterruptedException {
+        // Load test cases explicitly: we are outside any session, so the lazy collection is unusable
+        List<TestCase> testCases = testCaseRepository.findByQuestionIdOrderByIdAsc(submission.getQuestion().getId());
 
-        try {
-            // Convert the possibly null set of test cases into a list
-            Set<TestCase> testCaseSet = submission.getQuestion().getTestCases();
-            List<TestCase> testCases = new ArrayList<>();
-            if (testCaseSet != null) {
-                testCases.addAll(testCaseSet);
-            }
+        if (testCases.isEmpty()) {
+            submission.setStatus(CodingSubmission.SubmissionStatus.COMPLETED);
+            submission.setScore(0.0);
+            submission.setFeedback("No test cases available");
+            submission.setTestCaseResults(new ArrayList<>());
+            submission.setEvaluatedAt(LocalDateTime.now());
+            return;
+        }
+
+        CodingSubmission.EvaluationPolicy policy = Objects.requireNonNullElse(
+                submission.getEvaluationPolicy(), CodingSubmission.EvaluationPolicy.RUN_ALL);
+        boolean failFast = policy == CodingSubmission.EvaluationPolicy.FAIL_FAST;
+        if (failFast) {
+            // Visible cases are usually the small ones, so a broken solution fails cheaply
+            testCases = testCases.stream()
+                    .sorted(Comparator.comparing(TestCase::isHidden))
+                    .toList();
+        }
+
+        // The submission's question is a lazy proxy, only its id is readable here
+        Question question = questionRepository.findById(submission.getQuestion().getId())
+                .orElseThrow(() -> new RuntimeException("Question not found"));
+        Question.ComparisonMode comparisonMode = Objects.requireNonNullElse(
+                question.getComparisonMode(), Question.ComparisonMode.EXACT);
+        double tolerance = Objects.requireNonNullElse(question.getFloatTolerance(), defaultFloatTolerance);
+
+        String verdictKey = verdictCache.key(question.getId(), submission.getLanguage(),
+                submission.getCode(), testCases, policy, comparisonMode, tolerance);
+        VerdictCache.Verdict cached = verdictCache.get(verdictKey);
+        if (cached != null) {
+            cached.applyTo(submission);
+            submission.setEvaluatedAt(LocalDateTime.now());
+            return;
+        }
 
-            if (testCases.isEmpty()) {
-                submission.setStatus(CodingSubmission.SubmissionStatus.COMPLETED);
-                submission.setScore(0.0);
-                submission.setFeedback("No test cases available");
-                submission.setEvaluatedAt(LocalDateTime.now());
-                submissionRepository.save(submission);
-                return;
+        if (live) {
+            // The only intermediate write: marks the row as picked up in case this node dies
+            transition(submission, CodingSubmission.SubmissionStatus.COMPILING);
+            submissionRepository.updateStatus(submission.getId(), CodingSubmission.SubmissionStatus.COMPILING);
+        }
+
+        CodingSubmission.ProgrammingLanguage language = submission.getLanguage();
+        long compileStart = System.nanoTime();
+        CompiledArtifact artifact = artifactCache.resolve(language, submission.getCode());
+        judgeMetrics.recordStage(JudgeMetrics.Stage.COMPILE, language, System.nanoTime() - compileStart);
+        if (!artifact.isSuccess()) {
+            submission.setStatus(CodingSubmission.SubmissionStatus.FAILED);
+            submission.setCompilationError(truncate(artifact.getCompilerOutput(), 1000));
+            submission.setScore(0.0);
+            submission.setTestCasesPassed(0);
+            submission.setTotalTestCases(testCases.size());
+            submission.setFeedback("Compilation failed");
+            // Replaces the lazy bag of a row loaded by the queue, which Verdict would read outside a session
+            submission.setTestCaseResults(new ArrayList<>());
+            submission.setEvaluatedAt(LocalDateTime.now());
+            // A compile timeout depends on load, so it is not reused any more than the artifact is
+            if (artifact.isCached()) {
+                verdictCache.put(verdictKey, new VerdictCache.Verdict(submission));
             }
+            return;
+        }
 
-            Path tempDir = Files.createTempDirectory("coding-eval");
-            String fileName = getFileName(submission.getLanguage());
-            Path codeFile = tempDir.resolve(fileName);
-            Files.write(codeFile, submission.getCode().getBytes());
-
-            int passedTests = 0;
-            int totalTests = testCases.size();
-            StringBuilder feedback = new StringBuilder();
-
-            for (TestCase testCase : testCases) {
-                ExecutionResult result = executeCode(codeFile, submission.getLanguage(), testCase.getInput());
-                String expected = safeTrim(testCase.getExpectedOutput());
-                String got = safeTrim(result.getOutput());
-
-                if (result.isSuccess() && got.equals(expected)) {
-                    passedTests++;
-                    feedback.append("✓ Test case passed\n");
-                } else {
-                    feedback.append("✗ Test case failed\n");
-                    if (!result.isSuccess()) {
-                        feedback.append("Error: ").append(result.getError()).append("\n");
-                    } else {
-                        feedback.append("Expected: ").append(expected).append("\n");
-                        feedback.append("Got: ").append(got).append("\n");
-                    }
-                }
+        if (live) {
+            transition(submission, CodingSubmission.SubmissionStatus.RUNNING);
+        }
+        Long submissionId = submission.getId();
+        BiConsumer<Integer, TestCaseResult> progress = live
+                ? (index, caseResult) -> submissionEvents.publishTestCase(submissionId, index, caseResult)
+                : (index, caseResult) -> { };
+
+        // Each output is compared once, when its case finishes; aggregation reuses the outcome
+        List<TestCase> cases = testCases;
+        OutputComparator.Result[] comparisons = new OutputComparator.Result[cases.size()];
+        BiFunction<Integer, ExecutionResult, TestCaseResult> grade = (index, result) -> {
+            if (result.isSuccess() && comparisons[index] == null) {
+                long compareStart = System.nanoTime();
+                comparisons[index] = compareOutput(cases.get(index), result, comparisonMode, tolerance);
+                judgeMetrics.recordStage(JudgeMetrics.Stage.COMPARE, language, System.nanoTime() - compareStart);
             }
+            return toCaseResult(cases.get(index), result, comparisons[index]);
+        };
 
-            double score = (double) passedTests / totalTests * 100.0;
+        List<ExecutionResult> results;
+        long acquireStart = System.nanoTime();
+        long workspaceNanos;
+        long runEnd;
+        try (WorkspaceManager.Workspace workspace = workspaceManager.acquire();
+             LanguageWorkerPool.Scope workers = workerPool.openScope()) {
+            long runStart = System.nanoTime();
+            workspaceNanos = runStart - acquireStart;
+            results = runTestCases(workspace.getPath(), workers, artifact, testCases, failFast, grade, progress);
+            runEnd = System.nanoTime();
+            judgeMetrics.recordStage(JudgeMetrics.Stage.RUN, language, runEnd - runStart);
+        }
+        // Acquiring the workspace plus resetting it on close
+        judgeMetrics.recordStage(JudgeMetrics.Stage.WORKSPACE, language, workspaceNanos + System.nanoTime() - runEnd);
 
-            submission.setStatus(CodingSubmission.SubmissionStatus.COMPLETED);
-            submission.setScore(score);
-            submission.setTestCasesPassed(passedTests);
-            submission.setTotalTestCases(totalTests);
-            submission.setFeedback(feedback.toString());
-            submission.setEvaluatedAt(LocalDateTime.now());
+        // Under fail-fast only a prefix of the cases ran; score over that prefix
+        int totalTests = 0;
+        while (totalTests < results.size() && results.get(totalTests) != null) {
+            totalTests++;
+        }
+        results = results.subList(0, totalTests);
 
-            // cleanup
-            deleteDirectory(tempDir);
+        int passedTests = 0;
+        StringBuilder feedback = new StringBuilder();
+        List<TestCaseResult> caseResults = new ArrayList<>(totalTests);
 
-        } catch (Exception e) {
-            submission.setStatus(CodingSubmission.SubmissionStatus.FAILED);
-            submission.setRuntimeError(e.getMessage());
-            log.error("Error during code evaluation", e);
+        for (int i = 0; i < totalTests; i++) {
+            ExecutionResult result = results.get(i);
+            TestCaseResult caseResult = grade.apply(i, result);
+
+            if (caseResult.isPassed()) {
+                passedTests++;
+            }
+            judgeMetrics.recordTestCase(language, result, caseResult.isPassed());
+            appendFeedback(feedback, caseResult, result, comparisons[i]);
+            caseResults.add(caseResult);
         }
 
-        submissionRepository.save(submission);
-    }
+        if (totalTests < testCases.size()) {
+            feedback.append("Stopped after first failure: ").append(totalTests)
+                    .append(" of ").append(testCases.size()).append(" test cases run\n");
+        }
 
-    private String safeTrim(String s) {
-        return s == null ? "" : s.trim();
+        // No case may have finished at all (cancelled before the first one ran)
+        double score = totalTests == 0 ? 0.0 : (double) passedTests / totalTests * 100.0;
+
+        submission.setStatus(CodingSubmission.SubmissionStatus.COMPLETED);
+        submission.setScore(score);
+        submission.setTestCasesPassed(passedTests);
+        submission.setTotalTestCases(totalTests);
+        submission.setFeedback(feedback.toString());
+        submission.setTestCaseResults(caseResults);
+        submission.setExecutionTimeMs(maxOf(caseResults, TestCaseResult::getWallTimeMs));
+        submission.setCpuTimeMs(maxOf(caseResults, TestCaseResult::getCpuTimeMs));
+        submission.setMemoryUsageKb(maxOf(caseResults, TestCaseResult::getMemoryKb));
+        submission.setEvaluatedAt(LocalDateTime.now());
+
+        // Timeouts and crashes depend on load, so only runs that finished everywhere are reusable
+        if (results.stream().allMatch(ExecutionResult::isSuccess)) {
+            verdictCache.put(verdictKey, new VerdictCache.Verdict(submission));
+        }
     }
 
-    private ExecutionResult executeCode(Path codeFile, CodingSubmission.ProgrammingLanguage language, String input) {
-        try {
-            String command = getExecutionCommand(codeFile, language);
-            ProcessBuilder pb = new ProcessBuilder(command.split(" "));
-            pb.directory(codeFile.getParent().toFile());
-
-            Process proc = pb.start();
+    /**
+     * Runs the cases in order. With {@code failFast} the returned list ends at the
+     * first failing case: later entries are either missing or {@code null}.
+     */
+    private List<ExecutionResult> runTestCases(Path workDir, LanguageWorkerPool.Scope workers,
+                                               CompiledArtifact artifact, List<TestCase> testCases, boolean failFast,
+                                               BiFunction<Integer, ExecutionResult, TestCaseResult> grade,
+                                               BiConsumer<Integer, TestCaseResult> progress)
+            throws InterruptedException {
+        // Called exactly once per finished case, in every mode, so it doubles as the progress hook
+        BiPredicate<Integer, ExecutionResult> stopOn = (index, result) -> {
+            TestCaseResult caseResult = grade.apply(index, result);
+            progress.accept(index, caseResult);
+            return failFast && !caseResult.isPassed();
+        };
 
-            if (input != null && !input.isBlank()) {
-                try (OutputStreamWriter w = new OutputStreamWriter(proc.getOutputStream())) {
-                    w.write(input);
-                    w.flush();
+        List<TestCaseData> inputs = testCases.stream().map(testCaseBlobStore::input).toList();
+
+        // The batch harness takes every input as one frame, so stored (large) inputs go case by case
+        if (batchHarnessRunner.supports(artifact) && inputs.stream().allMatch(TestCaseData::isInline)) {
+            List<String> texts = inputs.stream().map(TestCaseData::text).toList();
+            List<ExecutionResult> results = new ArrayList<>(batchHarnessRunner.runAll(artifact, workDir, texts, stopOn));
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, executeCode(workDir, workers, artifact, inputs.get(i)));
+                    if (stopOn.test(i, results.get(i))) {
+                        return results.subList(0, i + 1);
+                    }
                 }
             }
+            return results;
+        }
 
-            boolean finished = proc.waitFor(10, TimeUnit.SECONDS);
-            if (!finished) {
-                proc.destroyForcibly();
-                return new ExecutionResult(false, "", "Execution timeout");
+        if (!parallelTestCases || testCases.size() == 1) {
+            List<ExecutionResult> results = new ArrayList<>(testCases.size());
+            for (int i = 0; i < testCases.size(); i++) {
+                ExecutionResult result = executeCode(workDir, workers, artifact, inputs.get(i));
+                results.add(result);
+                if (stopOn.test(i, result)) {
+                    break;
+                }
             }
+            return results;
+        }
 
-            String output = readStream(proc.getInputStream());
-            String error = readStream(proc.getErrorStream());
+        List<Callable<ExecutionResult>> tasks = new ArrayList<>(testCases.size());
+        for (TestCaseData input : inputs) {
+            tasks.add(() -> executeCode(workDir, workers, artifact, input));
+        }
+        return testCaseExecutor.runAll(tasks, maxParallelPerSubmission, stopOn);
+    }
+
+    private OutputComparator.Result compareOutput(TestCase testCase, ExecutionResult result,
+                                                  Question.ComparisonMode mode, double tolerance) {
+        return OutputComparator.compare(
+                TestCaseData.inline(result.getOutput()).openReader(),
+                testCaseBlobStore.expectedOutput(testCase).openReader(),
+                mode, tolerance);
+    }
 
-            if (proc.exitValue() != 0) {
-                return new ExecutionResult(false, output, error);
+    static void appendFeedback(StringBuilder feedback, TestCaseResult caseResult, ExecutionResult result,
+                               OutputComparator.Result comparison) {
+        if (caseResult.isPassed()) {
+            feedback.append("✓ Test case passed\n");
+        } else {
+            feedback.append("✗ Test case failed\n");
+            if (!result.isSuccess()) {
+                feedback.append("Error: ").append(result.getError()).append("\n");
+            } else {
+                feedback.append(comparison.describe()).append("\n");
             }
+        }
+    }
 
-            return new ExecutionResult(true, output, error);
+    // comparison is null when the run itself failed
+    private TestCaseResult toCaseResult(TestCase testCase, ExecutionResult result, OutputComparator.Result comparison) {
+        boolean passed = result.isSuccess() && comparison.matched();
+        String verdict;
+        if (passed) {
+            verdict = "Passed";
+        } else if (!result.isSuccess()) {
+            verdict = truncate(firstLine(result.getError()), 100);
+        } else {
+            verdict = truncate("Wrong answer at line " + comparison.line() + ", column " + comparison.column(), 100);
+        }
+        return new TestCaseResult(passed, testCase.isHidden(), verdict,
+                result.getWallTimeMs(), result.getCpuTimeMs(), result.getMemoryKb());
+    }
 
-        } catch (Exception e) {
-            return new ExecutionResult(false, "", e.getMessage());
+    // Intermediate statuses are only visible through the registry and the event stream
+    private void transition(CodingSubmission submission, CodingSubmission.SubmissionStatus status) {
+        submission.setStatus(status);
+        statusRegistry.update(submission.getId(), status);
+        submissionEvents.publishStatus(submission);
+    }
+
+    private void saveAndPublish(CodingSubmission submission) {
+        long start = System.nanoTime();
+        try {
+            submissionRepository.save(submission);
+            judgeMetrics.recordStage(JudgeMetrics.Stage.PERSIST, submission.getLanguage(), System.nanoTime() - start);
+        } finally {
+            statusRegistry.clear(submission.getId());
         }
+        submissionEvents.publishStatus(submission);
+        similarityIndex.add(submission);
     }
 
-    private String getFileName(CodingSubmission.ProgrammingLanguage lang) {
-        return switch (lang) {
-            case JAVA -> "Solution.java";
-            case PYTHON -> "solution.py";
-            case CPP -> "solution.cpp";
-            case JAVASCRIPT -> "solution.js";
-        };
+    private String firstLine(String s) {
+        if (s == null || s.isBlank()) {
+            return "Runtime error";
+        }
+        int newline = s.indexOf('\n');
+        return newline < 0 ? s : s.substring(0, newline);
     }
 
-    private String getExecutionCommand(Path codeFile, CodingSubmission.ProgrammingLanguage lang) {
-        return switch (lang) {
-            case JAVA -> {
-                String className = codeFile.getFileName().toString().replace(".java", "");
-                yield "java " + className;
-            }
-            case PYTHON -> "python " + codeFile.getFileName().toString();
-            case CPP -> {
-                String exe = codeFile.getFileName().toString().replace(".cpp", "");
-                yield "./" + exe;
-            }
-            case JAVASCRIPT -> "node " + codeFile.getFileName().toString();
-        };
+    private Integer maxOf(List<TestCaseResult> results, Function<TestCaseResult, Long> metric) {
+        return results.stream()
+                .map(metric)
+                .filter(Objects::nonNull)
+                .max(Long::compare)
+                .map(Long::intValue)
+                .orElse(null);
+    }
+
+    private String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
     }
 
-    private String readStream(InputStream in) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                sb.append(line).append("\n");
+    private ExecutionResult executeCode(Path workDir, LanguageWorkerPool.Scope workers, CompiledArtifact artifact,
+                                        TestCaseData input) {
+        // Warm workers take stdin as one frame, so stored (large) input goes to a fresh process
+        if (workerPool.isEnabled(artifact.getLanguage()) && input.isInline()) {
+            LanguageWorker.WorkerResult pooled = workers.tryRun(artifact, input.text());
+            if (pooled != null) {
+                return pooled.toExecutionResult();
             }
         }
-        return sb.toString().trim();
+
+        return processRunner.run(artifact.getLanguage(), workDir, artifact.getRunCommand(), input);
     }
 
-    private void deleteDirectory(Path directory) throws IOException {
-        try (var stream = Files.walk(directory)) {
-            stream.sorted(Comparator.reverseOrder())
-                    .map(Path::toFile)
-                    .forEach(file -> {
-                        boolean deleted = file.delete();
-                        if (!deleted) {
-                            log.warn("Failed to delete file or directory: {}", file.getAbsolutePath());
-                        }
-                    });
+    /**
+     * Re-evaluates a finished submission against the question's current test
+     * cases on the calling thread. Used by bulk rejudges. The submission keeps
+     * showing its stored verdict while it is judged again: no intermediate
+     * status is written or published, and the new verdict is only stored when
+     * it differs. A system error leaves the stored verdict as it was and is
+     * thrown to the caller.
+     *
+     * @return whether the score changed
+     */
+    public boolean rejudge(CodingSubmission submission) throws IOException, InterruptedException {
+        Outcome before = Outcome.of(submission);
+        long start = System.nanoTime();
+        submission.setCompilationError(null);
+        submission.setRuntimeError(null);
+        submission.setTestCaseResults(new ArrayList<>());
+        evaluateCode(submission, false);
+        judgeMetrics.recordEvaluation(submission, System.nanoTime() - start);
+        if (!Outcome.of(submission).equals(before)) {
+            saveAndPublish(submission);
+        }
+        return !Objects.equals(before.score(), submission.getScore());
+    }
+
+    // What a rejudge compares; timings vary from run to run and are not part of the verdict
+    private record Outcome(CodingSubmission.SubmissionStatus status, Double score, Integer testCasesPassed,
+                           Integer totalTestCases, String feedback, String compilationError, String runtimeError) {
+
+        static Outcome of(CodingSubmission submission) {
+            return new Outcome(submission.getStatus(), submission.getScore(), submission.getTestCasesPassed(),
+                    submission.getTotalTestCases(), submission.getFeedback(), submission.getCompilationError(),
+                    submission.getRuntimeError());
         }
     }
 
@@ -245,6 +491,7 @@ public class CodingEvaluationService {
             return submissionRepository.findByUser(user)
                     .stream()
                     .filter(s -> s.getQuestion() != null && Objects.equals(s.getQuestion().getId(), questionId))
+                    .map(statusRegistry::overlay)
                     .toList();
         }
 
@@ -254,10 +501,19 @@ public class CodingEvaluationService {
             return submissionRepository.findByInterviewSession(session)
                     .stream()
                     .filter(s -> s.getUser() != null && Objects.equals(s.getUser().getId(), user.getId()))
+                    .map(statusRegistry::overlay)
                     .toList();
         }
 
-        return submissionRepository.findByUser(user);
+        return submissionRepository.findByUser(user)
+                .stream()
+                .map(statusRegistry::overlay)
+                .toList();
+    }
+
+    public SseEmitter streamEvents(Long id, String username) {
+        getSubmission(id, username);
+        return submissionEvents.subscribe(id, () -> submissionRepository.findById(id).map(statusRegistry::overlay));
     }
 
     public CodingSubmission getSubmission(Long id, String username) {
@@ -266,27 +522,27 @@ public class CodingEvaluationService {
 
         return submissionRepository.findById(id)
                 .filter(s -> s.getUser() != null && Objects.equals(s.getUser().getId(), user.getId()))
+                .map(statusRegistry::overlay)
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
     }
 
-    public Map<String, Object> testCode(String code, String language, String input) {
+    public Map<String, Object> testCode(String code, String language, String input, String username) {
         try {
-            Path tempDir = Files.createTempDirectory("code-test");
-            String fileName = getFileName(CodingSubmission.ProgrammingLanguage.valueOf(language.toUpperCase()));
-            Path codeFile = tempDir.resolve(fileName);
-
-            Files.write(codeFile, code.getBytes());
-
-            ExecutionResult result = executeCode(codeFile, CodingSubmission.ProgrammingLanguage.valueOf(language.toUpperCase()), input);
-
-            deleteDirectory(tempDir);
+            // Scratch runs share the judge workers but yield to queued submissions
+            ExecutionResult result = judgeQueue.call(JudgePriority.SCRATCH,
+                    () -> runScratch(code, language, input, username));
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", result.isSuccess());
             response.put("output", result.getOutput());
             response.put("error", result.getError());
+            response.put("executionTimeMs", result.getWallTimeMs());
+            response.put("cpuTimeMs", result.getCpuTimeMs());
+            response.put("memoryUsageKb", result.getMemoryKb());
 
             return response;
+        } catch (JudgeBusyException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -296,28 +552,19 @@ public class CodingEvaluationService {
         }
     }
 
-    // Inner helper class
-    private static class ExecutionResult {
-        private final boolean success;
-        private final String output;
-        private final String error;
-
-        public ExecutionResult(boolean success, String output, String error) {
-            this.success = success;
-            this.output = output;
-            this.error = error;
-        }
-
-        public boolean isSuccess() {
-            return success;
-        }
-
-        public String getOutput() {
-            return output;
-        }
-
-        public String getError() {
-            return error;
+    // Repeated runs of unchanged code reuse the session's artifact and workspace
+    private ExecutionResult runScratch(String code, String language, String input, String username)
+            throws IOException {
+        CodingSubmission.ProgrammingLanguage lang = CodingSubmission.ProgrammingLanguage.valueOf(language.toUpperCase());
+        try (ScratchSessions.Session session = scratchSessions.open(username)) {
+            CompiledArtifact artifact = session.artifact(lang, code, () -> artifactCache.resolve(lang, code));
+            if (!artifact.isSuccess()) {
+                return new ExecutionResult(false, "", artifact.getCompilerOutput());
+            }
+            // A scratch run gets its own scope: the session outlives it and holds no workers
+            try (LanguageWorkerPool.Scope workers = workerPool.openScope()) {
+                return executeCode(session.workspace(), workers, artifact, TestCaseData.inline(input));
+            }
         }
     }
 }
@@ -8,11 +8,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "coding_submissions")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -56,6 +61,8 @@ public class CodingSubmission {
     
     private Integer executionTimeMs;
     
+    private Integer cpuTimeMs;
+    
     private Integer memoryUsageKb;
     
     @Size(max = 1000)
@@ -73,6 +80,10 @@ public class CodingSubmission {
     
     private Integer totalTestCases;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "evaluation_policy")
+    private EvaluationPolicy evaluationPolicy;
+    
     @Setter
     @Column(name = "submitted_at")
     private LocalDateTime submittedAt = LocalDateTime.now();
@@ -80,6 +91,13 @@ public class CodingSubmission {
     @Setter
     @Column(name = "evaluated_at")
     private LocalDateTime evaluatedAt;
+    
+    // Per test case outcome and resource usage, in test case order
+    @ElementCollection
+    @CollectionTable(name = "coding_submission_results", joinColumns = @JoinColumn(name = "submission_id"))
+    @OrderColumn(name = "case_index")
+    @BatchSize(size = 50)
+    private List<TestCaseResult> testCaseResults = new ArrayList<>();
 
     public void setScore(double score) { this.score = score; }
     public void setTestCasesPassed(int passed) { this.testCasesPassed = passed; }
@@ -93,4 +111,9 @@ public class CodingSubmission {
     public enum SubmissionStatus {
         PENDING, COMPILING, RUNNING, COMPLETED, FAILED, TIMEOUT
     }
+    
+    // RUN_ALL scores every test case; FAIL_FAST stops judging at the first failure
+    public enum EvaluationPolicy {
+        RUN_ALL, FAIL_FAST
+    }
 }
@@ -4,6 +4,8 @@ import com.mockmate.model.CodingSubmission;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class CodingSubmissionDto {
@@ -16,14 +18,17 @@ public class CodingSubmissionDto {
     private CodingSubmission.SubmissionStatus status;
     private Double score;
     private Integer executionTimeMs;
+    private Integer cpuTimeMs;
     private Integer memoryUsageKb;
     private String compilationError;
     private String runtimeError;
     private String feedback;
     private Integer testCasesPassed;
     private Integer totalTestCases;
+    private CodingSubmission.EvaluationPolicy evaluationPolicy;
     private LocalDateTime submittedAt;
     private LocalDateTime evaluatedAt;
+    private List<TestCaseResultDto> testCaseResults;
     
     public static CodingSubmissionDto fromCodingSubmission(CodingSubmission submission) {
         CodingSubmissionDto dto = new CodingSubmissionDto();
@@ -38,14 +43,23 @@ public class CodingSubmissionDto {
         dto.setStatus(submission.getStatus());
         dto.setScore(submission.getScore());
         dto.setExecutionTimeMs(submission.getExecutionTimeMs());
+        dto.setCpuTimeMs(submission.getCpuTimeMs());
         dto.setMemoryUsageKb(submission.getMemoryUsageKb());
         dto.setCompilationError(submission.getCompilationError());
         dto.setRuntimeError(submission.getRuntimeError());
         dto.setFeedback(submission.getFeedback());
         dto.setTestCasesPassed(submission.getTestCasesPassed());
         dto.setTotalTestCases(submission.getTotalTestCases());
+        dto.setEvaluationPolicy(submission.getEvaluationPolicy());
         dto.setSubmittedAt(submission.getSubmittedAt());
         dto.setEvaluatedAt(submission.getEvaluatedAt());
+        List<TestCaseResultDto> results = new ArrayList<>();
+        if (submission.getTestCaseResults() != null) {
+            for (int i = 0; i < submission.getTestCaseResults().size(); i++) {
+                results.add(TestCaseResultDto.fromTestCaseResult(i, submission.getTestCaseResults().get(i)));
+            }
+        }
+        dto.setTestCaseResults(results);
         return dto;
     }
 }
@@ -3,10 +3,13 @@ package com.mockmate.repository;
 import com.mockmate.model.CodingSubmission;
 import com.mockmate.model.User;
 import com.mockmate.model.InterviewSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,7 +34,56 @@ public interface CodingSubmissionRepository extends JpaRepository<CodingSubmissi
     @Query("SELECT COUNT(c) FROM CodingSubmission c WHERE c.user = :user AND c.status = :status")
     Long countByUserAndStatus(@Param("user") User user, @Param("status") CodingSubmission.SubmissionStatus status);
     
+    @Query("SELECT COUNT(c) FROM CodingSubmission c WHERE c.user.username = :username AND c.status IN :statuses")
+    long countByUsernameAndStatusIn(@Param("username") String username,
+                                     @Param("statuses") List<CodingSubmission.SubmissionStatus> statuses);
+    
     @Query("SELECT c FROM CodingSubmission c WHERE c.language = :language AND c.status = :status ORDER BY c.submittedAt DESC")
     List<CodingSubmission> findRecentSubmissionsByLanguage(@Param("language") CodingSubmission.ProgrammingLanguage language, 
                                                           @Param("status") CodingSubmission.SubmissionStatus status);
+    
+    // Keyset page of finished submissions for a rejudge; optional filters are passed as null
+    @Query("SELECT c FROM CodingSubmission c WHERE c.question.id = :questionId AND c.id > :afterId " +
+           "AND c.status IN :statuses " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND (:from IS NULL OR c.submittedAt >= :from) AND (:to IS NULL OR c.submittedAt <= :to) " +
+           "ORDER BY c.id")
+    List<CodingSubmission> findRejudgePage(@Param("questionId") Long questionId,
+                                           @Param("afterId") Long afterId,
+                                           @Param("statuses") List<CodingSubmission.SubmissionStatus> statuses,
+                                           @Param("language") CodingSubmission.ProgrammingLanguage language,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           Pageable page);
+    
+    @Query("SELECT COUNT(c) FROM CodingSubmission c WHERE c.question.id = :questionId AND c.id > :afterId " +
+           "AND c.status IN :statuses " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND (:from IS NULL OR c.submittedAt >= :from) AND (:to IS NULL OR c.submittedAt <= :to)")
+    long countRejudge(@Param("questionId") Long questionId,
+                      @Param("afterId") Long afterId,
+                      @Param("statuses") List<CodingSubmission.SubmissionStatus> statuses,
+                      @Param("language") CodingSubmission.ProgrammingLanguage language,
+                      @Param("from") LocalDateTime from,
+                      @Param("to") LocalDateTime to);
+    
+    // Keyset page for the similarity index: just the columns it needs, without feedback or results
+    @Query("SELECT c.id AS id, c.question.id AS questionId, c.user.id AS userId, " +
+           "c.language AS language, c.code AS code " +
+           "FROM CodingSubmission c WHERE c.id > :afterId ORDER BY c.id")
+    List<FingerprintSource> findFingerprintPage(@Param("afterId") Long afterId, Pageable page);
+    
+    interface FingerprintSource {
+        Long getId();
+        Long getQuestionId();
+        Long getUserId();
+        CodingSubmission.ProgrammingLanguage getLanguage();
+        String getCode();
+    }
+    
+    // Status-only write for lifecycle transitions; avoids rewriting the code and feedback LOBs
+    @Modifying
+    @Transactional
+    @Query("UPDATE CodingSubmission c SET c.status = :status WHERE c.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") CodingSubmission.SubmissionStatus status);
 }
@@ -20,6 +20,9 @@ import { Prism as SyntaxHighlighter } from 'react-syntax-highlighter';
 import { tomorrow, tomorrowNight } from 'react-syntax-highlighter/dist/esm/styles/prism';
 import { useTheme } from '../contexts/ThemeContext';
 
+const TERMINAL_STATUSES = ['COMPLETED', 'FAILED', 'TIMEOUT'];
+const POLL_INTERVAL_MS = 2000;
+
 const CodingTest = () => {
   const { questionId } = useParams();
   const navigate = useNavigate();
@@ -33,6 +36,9 @@ const CodingTest = () => {
   const [testOutput, setTestOutput] = useState('');
   const [timeLeft, setTimeLeft] = useState(null);
   const [isTimerRunning, setIsTimerRunning] = useState(false);
+  const [submissionId, setSubmissionId] = useState(null);
+  const [submission, setSubmission] = useState(null);
+  const [caseResults, setCaseResults] = useState([]);
 
   const { data: question, isLoading: questionLoading } = useQuery(
     ['question', questionId],
@@ -61,7 +67,9 @@ const CodingTest = () => {
       onSuccess: (response) => {
         toast.success('Code submitted successfully!');
         queryClient.invalidateQueries(['submissions', questionId]);
-        navigate('/practice');
+        setSubmission(response.data);
+        setCaseResults([]);
+        setSubmissionId(response.data.id);
       },
       onError: (error) => {
         toast.error(error.response?.data?.error || 'Submission failed');
@@ -88,6 +96,58 @@ const CodingTest = () => {
     }
   );
 
+  // Follows the verdict live; falls back to polling if the stream cannot be
+  // opened or ends before a final status
+  useEffect(() => {
+    if (!submissionId) {
+      return undefined;
+    }
+    const controller = new AbortController();
+    let pollTimer;
+    let finished = false;
+
+    const finish = async () => {
+      const { data } = await codingAPI.getSubmission(submissionId);
+      setSubmission(data);
+      queryClient.invalidateQueries(['submissions', questionId]);
+    };
+
+    const poll = async () => {
+      if (controller.signal.aborted) {
+        return;
+      }
+      try {
+        const { data } = await codingAPI.getSubmission(submissionId);
+        setSubmission(data);
+        if (TERMINAL_STATUSES.includes(data.status)) {
+          setCaseResults(data.testCaseResults || []);
+          queryClient.invalidateQueries(['submissions', questionId]);
+          return;
+        }
+      } catch (error) {
+        // Try again on the next tick
+      }
+      pollTimer = setTimeout(poll, POLL_INTERVAL_MS);
+    };
+
+    codingAPI
+      .streamSubmissionEvents(submissionId, (name, payload) => {
+        if (name === 'status') {
+          setSubmission((current) => ({ ...current, ...payload }));
+          finished = TERMINAL_STATUSES.includes(payload.status);
+        } else if (name === 'test-case') {
+          setCaseResults((results) => [...results, payload]);
+        }
+      }, controller.signal)
+      .then(() => (finished ? finish() : poll()))
+      .catch(() => poll());
+
+    return () => {
+      controller.abort();
+      clearTimeout(pollTimer);
+    };
+  }, [submissionId]);
+
   useEffect(() => {
     if (isTimerRunning && timeLeft > 0) {
       const timer = setTimeout(() => {
@@ -415,6 +475,58 @@ const CodingTest = () => {
               </div>
             </div>
 
+            {submission && (
+              <div className="card p-6">
+                <h2 className="text-lg font-semibold text-gray-900 dark:text-gray-100 mb-4">
+                  Submission Result
+                </h2>
+                <div className="flex items-center space-x-4 text-sm text-gray-700 dark:text-gray-300">
+                  {TERMINAL_STATUSES.includes(submission.status) ? (
+                    submission.status === 'COMPLETED' && submission.testCasesPassed === submission.totalTestCases ? (
+                      <CheckCircle className="h-5 w-5 text-green-500" />
+                    ) : (
+                      <XCircle className="h-5 w-5 text-red-500" />
+                    )
+                  ) : (
+                    <div className="spinner"></div>
+                  )}
+                  <span className="font-medium">{submission.status}</span>
+                  {submission.totalTestCases != null && (
+                    <span>
+                      {submission.testCasesPassed ?? 0} / {submission.totalTestCases} test cases passed
+                    </span>
+                  )}
+                  {TERMINAL_STATUSES.includes(submission.status) && submission.score != null && (
+                    <span>Score: {Math.round(submission.score)}%</span>
+                  )}
+                </div>
+                {caseResults.length > 0 && (
+                  <ul className="mt-4 space-y-1 text-sm">
+                    {caseResults.map((result) => (
+                      <li key={result.index} className="flex items-center space-x-2 text-gray-700 dark:text-gray-300">
+                        {result.passed ? (
+                          <CheckCircle className="h-4 w-4 text-green-500" />
+                        ) : (
+                          <XCircle className="h-4 w-4 text-red-500" />
+                        )}
+                        <span>
+                          Test Case {result.index + 1}{result.hidden ? ' (hidden)' : ''}: {result.verdict}
+                        </span>
+                        {result.wallTimeMs != null && (
+                          <span className="text-gray-500 dark:text-gray-400">{result.wallTimeMs} ms</span>
+                        )}
+                      </li>
+                    ))}
+                  </ul>
+                )}
+                {submission.compilationError && (
+                  <pre className="mt-4 p-3 font-mono text-sm bg-gray-100 dark:bg-gray-800 rounded-lg text-red-600 overflow-auto">
+                    {submission.compilationError}
+                  </pre>
+                )}
+              </div>
+            )}
+
             {/* Submit Button */}
             <div className="flex justify-end">
               <button
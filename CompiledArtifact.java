@@ -0,0 +1,61 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Result of the compile stage for one (language, code) pair. For interpreted
+ * languages the artifact is simply the cached source file.
+ */
+public class CompiledArtifact {
+
+    private final CodingSubmission.ProgrammingLanguage language;
+    private final Path directory;
+    private final boolean success;
+    private final String compilerOutput;
+    private final boolean cached;
+
+    public CompiledArtifact(CodingSubmission.ProgrammingLanguage language, Path directory,
+                            boolean success, String compilerOutput, boolean cached) {
+        this.language = language;
+        this.directory = directory;
+        this.success = success;
+        this.compilerOutput = compilerOutput;
+        this.cached = cached;
+    }
+
+    public CodingSubmission.ProgrammingLanguage getLanguage() {
+        return language;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getCompilerOutput() {
+        return compilerOutput;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Command line that runs this artifact. Paths are absolute so the process
+     * can use any directory as its working directory.
+     */
+    public List<String> getRunCommand() {
+        return switch (language) {
+            case JAVA -> List.of("java", "-cp", directory.toString(), "Solution");
+            case PYTHON -> List.of("python", directory.resolve("solution.py").toString());
+            case CPP -> List.of(directory.resolve("solution").toString());
+            case JAVASCRIPT -> List.of("node", directory.resolve("solution.js").toString());
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.mockmate.config;
 
 import com.mockmate.model.*;
 import com.mockmate.repository.*;
+import com.mockmate.service.TestCaseBlobStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -22,6 +23,7 @@ public class DataInitializer implements CommandLineRunner {
     private final TestCaseRepository testCaseRepository;
     private final OptionRepository optionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TestCaseBlobStore testCaseBlobStore;
 
     @Override
     public void run(String... args) throws Exception {
@@ -268,6 +270,7 @@ public class DataInitializer implements CommandLineRunner {
         testCase.setExpectedOutput(expectedOutput);
         testCase.setHidden(isHidden);
         testCase.setPoints(points);
+        testCaseBlobStore.externalize(testCase);
         return testCaseRepository.save(testCase);
     }
 
@@ -0,0 +1,272 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.JudgeJob;
+import com.mockmate.model.JudgePriority;
+import com.mockmate.repository.CodingSubmissionRepository;
+import com.mockmate.repository.JudgeJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Database-backed job queue for running the judge on several nodes. API nodes
+ * insert a {@link JudgeJob} per submission; worker nodes claim queued jobs with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, hold a lease that they renew while
+ * judging, and settle the job when done. A job whose lease runs out (the node
+ * died or stalled) is put back in the queue and picked up elsewhere, so every
+ * submission is judged at least once.
+ *
+ * <p>Enabled with {@code judge.mode=distributed}. {@code judge.role} selects
+ * what this node does: {@code api} only enqueues, {@code worker} only judges,
+ * {@code all} (the default) does both.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DistributedJudge {
+
+    private final JudgeJobRepository jobRepository;
+    private final CodingSubmissionRepository submissionRepository;
+    private final JudgeQueue judgeQueue;
+    private final SubmissionEvents submissionEvents;
+    private final SubmissionStatusRegistry statusRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${judge.mode:local}")
+    private String mode;
+
+    @Value("${judge.role:all}")
+    private String role;
+
+    @Value("${judge.distributed.node-id:}")
+    private String nodeId;
+
+    @Value("${judge.distributed.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${judge.distributed.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${judge.distributed.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${judge.distributed.max-queued:1000}")
+    private long maxQueued;
+
+    @Value("${judge.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private volatile LongConsumer handler;
+
+    // Jobs this node is judging, by job id
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Last status relayed to local subscribers for submissions judged on other nodes
+    private final Map<Long, CodingSubmission.SubmissionStatus> relayed = new ConcurrentHashMap<>();
+
+    // Lease renewal gets its own thread so a slow scheduled task elsewhere cannot let leases expire
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "judge-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        if (isEnabled()) {
+            log.info("Distributed judge enabled as node {} with role {}", nodeId, role);
+        }
+        if (isWorker()) {
+            heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return "distributed".equalsIgnoreCase(mode);
+    }
+
+    private boolean isWorker() {
+        return isEnabled() && !"api".equalsIgnoreCase(role);
+    }
+
+    /** Sets the callback that judges a submission by id; called on a judge worker thread. */
+    public void setHandler(LongConsumer handler) {
+        this.handler = handler;
+    }
+
+    public void enqueue(Long submissionId, JudgePriority priority) {
+        if (jobRepository.countByStatus(JudgeJob.JobStatus.QUEUED) >= maxQueued) {
+            log.warn("Distributed judge queue full, rejecting submission {}", submissionId);
+            throw new JudgeBusyException("Judge is busy, please retry shortly", retryAfterSeconds);
+        }
+        LocalDateTime dueAt = LocalDateTime.now().plus(judgeQueue.handicap(priority));
+        jobRepository.save(new JudgeJob(submissionId, priority, dueAt));
+    }
+
+    @Scheduled(fixedDelayString = "${judge.distributed.poll-interval-ms:500}")
+    public void poll() {
+        if (!isWorker() || handler == null) {
+            return;
+        }
+        int free = judgeQueue.getWorkers() - judgeQueue.getActiveCount() - judgeQueue.getQueueDepth();
+        if (free <= 0) {
+            return;
+        }
+        List<JudgeJob> claimed = transactionTemplate.execute(tx -> claim(free));
+        for (JudgeJob job : claimed) {
+            if (job.getStatus() == JudgeJob.JobStatus.FAILED) {
+                abandon(job);
+                continue;
+            }
+            inFlight.add(job.getId());
+            try {
+                judgeQueue.submit(job.getPriority(), () -> run(job));
+            } catch (JudgeBusyException e) {
+                // Local pool filled up since we counted; hand the job back
+                inFlight.remove(job.getId());
+                jobRepository.settle(job.getId(), nodeId, JudgeJob.JobStatus.QUEUED, LocalDateTime.now());
+            }
+        }
+    }
+
+    private List<JudgeJob> claim(int limit) {
+        List<JudgeJob> jobs = jobRepository.lockQueued(limit);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(leaseMs));
+        for (JudgeJob job : jobs) {
+            job.setAttempts(job.getAttempts() + 1);
+            if (job.getAttempts() > maxAttempts) {
+                job.setStatus(JudgeJob.JobStatus.FAILED);
+                job.setLeaseOwner(null);
+                job.setLeaseExpiresAt(null);
+            } else {
+                job.setStatus(JudgeJob.JobStatus.CLAIMED);
+                job.setLeaseOwner(nodeId);
+                job.setLeaseExpiresAt(expiresAt);
+            }
+        }
+        return new ArrayList<>(jobRepository.saveAll(jobs));
+    }
+
+    private void run(JudgeJob job) {
+        JudgeJob.JobStatus outcome = JudgeJob.JobStatus.DONE;
+        try {
+            handler.accept(job.getSubmissionId());
+        } catch (Exception e) {
+            log.error("Distributed job {} for submission {} failed", job.getId(), job.getSubmissionId(), e);
+            outcome = JudgeJob.JobStatus.FAILED;
+        } finally {
+            inFlight.remove(job.getId());
+        }
+        if (jobRepository.settle(job.getId(), nodeId, outcome, LocalDateTime.now()) == 0) {
+            log.warn("Lease on job {} was lost before it finished; another node may judge it again", job.getId());
+        }
+    }
+
+    // A job that keeps killing its node is not retried forever
+    private void abandon(JudgeJob job) {
+        log.warn("Giving up on submission {} after {} attempts", job.getSubmissionId(), job.getAttempts() - 1);
+        submissionRepository.findById(job.getSubmissionId())
+                .filter(submission -> !SubmissionEvents.isTerminal(submission.getStatus()))
+                .ifPresent(submission -> {
+                    submission.setStatus(CodingSubmission.SubmissionStatus.FAILED);
+                    submission.setRuntimeError("Judging was abandoned after repeated worker failures");
+                    submission.setEvaluatedAt(LocalDateTime.now());
+                    submissionRepository.save(submission);
+                    submissionEvents.publishStatus(submission);
+                });
+    }
+
+    private void heartbeat() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(inFlight);
+        try {
+            int renewed = jobRepository.renewLeases(ids, nodeId,
+                    LocalDateTime.now().plus(Duration.ofMillis(leaseMs)), JudgeJob.JobStatus.CLAIMED);
+            if (renewed < ids.size()) {
+                log.warn("Renewed {} of {} judge leases; the rest expired or finished", renewed, ids.size());
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of the task, it would cancel every later renewal
+            log.warn("Failed to renew {} judge leases", ids.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${judge.distributed.reaper-interval-ms:10000}")
+    public void requeueExpired() {
+        if (!isWorker()) {
+            return;
+        }
+        int requeued = jobRepository.requeueExpired(LocalDateTime.now(),
+                JudgeJob.JobStatus.CLAIMED, JudgeJob.JobStatus.QUEUED);
+        if (requeued > 0) {
+            log.warn("Re-queued {} judge jobs whose lease expired", requeued);
+        }
+    }
+
+    /**
+     * Status events are published by the node that judges a submission. For
+     * streams held on this node whose submission is judged elsewhere, poll the
+     * persisted status and forward changes.
+     */
+    @Scheduled(fixedDelayString = "${judge.distributed.relay-interval-ms:2000}")
+    public void relayRemoteStatus() {
+        if (!isEnabled()) {
+            return;
+        }
+        Set<Long> watched = submissionEvents.subscribedIds();
+        relayed.keySet().retainAll(watched);
+        List<Long> remote = watched.stream()
+                .filter(id -> statusRegistry.get(id).isEmpty())
+                .toList();
+        if (remote.isEmpty()) {
+            return;
+        }
+        for (CodingSubmission submission : submissionRepository.findAllById(remote)) {
+            CodingSubmission.SubmissionStatus previous = relayed.put(submission.getId(), submission.getStatus());
+            if (previous != submission.getStatus()) {
+                submissionEvents.publishStatus(submission);
+            }
+        }
+    }
+
+    private String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+    }
+}
@@ -0,0 +1,56 @@
+package com.mockmate.service;
+
+/**
+ * Outcome of running a solution against one input, whichever runner produced it.
+ * Resource figures are {@code null} when the runner could not measure them.
+ */
+class ExecutionResult {
+    private final boolean success;
+    private final String output;
+    private final String error;
+    private final Long wallTimeMs;
+    private final Long cpuTimeMs;
+    private final Long memoryKb;
+
+    public ExecutionResult(boolean success, String output, String error) {
+        this(success, output, error, null, null, null);
+    }
+
+    public ExecutionResult(boolean success, String output, String error,
+                           Long wallTimeMs, Long cpuTimeMs, Long memoryKb) {
+        this.success = success;
+        this.output = output;
+        this.error = error;
+        this.wallTimeMs = wallTimeMs;
+        this.cpuTimeMs = cpuTimeMs;
+        this.memoryKb = memoryKb;
+    }
+
+    public ExecutionResult withUsage(Long wallTimeMs, Long cpuTimeMs, Long memoryKb) {
+        return new ExecutionResult(success, output, error, wallTimeMs, cpuTimeMs, memoryKb);
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    public Long getCpuTimeMs() {
+        return cpuTimeMs;
+    }
+
+    public Long getMemoryKb() {
+        return memoryKb;
+    }
+}
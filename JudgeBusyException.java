@@ -0,0 +1,19 @@
+package com.mockmate.service;
+
+/**
+ * Thrown when the judge cannot accept more work right now. The controller
+ * layer turns this into HTTP 429 with a Retry-After header.
+ */
+public class JudgeBusyException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public JudgeBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mockmate.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers for the judge's content-addressed caches.
+ */
+final class JudgeHashing {
+
+    private JudgeHashing() {
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hashes the parts with a separator byte between them, so ("ab", "c") and
+     * ("a", "bc") never collide. Null parts hash like an empty string.
+     */
+    static String sha256Hex(String... parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            if (part != null) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,63 @@
+package com.mockmate.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Queue entry for distributed judging; claimed by worker nodes with a time-limited lease
+@Entity
+@Table(name = "judge_jobs", indexes = @Index(name = "idx_judge_jobs_due", columnList = "status, due_at, id"))
+@Data
+@NoArgsConstructor
+public class JudgeJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @Column(name = "submission_id", unique = true)
+    private Long submissionId;
+    
+    @Enumerated(EnumType.STRING)
+    private JobStatus status = JobStatus.QUEUED;
+    
+    @Enumerated(EnumType.STRING)
+    private JudgePriority priority = JudgePriority.PRACTICE;
+    
+    // Claim order, the same rank JudgeQueue uses locally: enqueue time plus the priority's handicap
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+    
+    private int attempts;
+    
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+    
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    public JudgeJob(Long submissionId, JudgePriority priority, LocalDateTime dueAt) {
+        this.submissionId = submissionId;
+        this.priority = priority;
+        this.dueAt = dueAt;
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public enum JobStatus {
+        QUEUED, CLAIMED, DONE, FAILED
+    }
+}
@@ -0,0 +1,53 @@
+package com.mockmate.repository;
+
+import com.mockmate.model.JudgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JudgeJobRepository extends JpaRepository<JudgeJob, Long> {
+    
+    long countByStatus(JudgeJob.JobStatus status);
+    
+    // Must run inside a transaction; rows locked by another node are skipped rather than waited on.
+    // Ordered like JudgeQueue (enqueue time plus handicap), so classes age the same across nodes.
+    @Query(value = "SELECT * FROM judge_jobs WHERE status = 'QUEUED' ORDER BY due_at, id LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<JudgeJob> lockQueued(@Param("limit") int limit);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE JudgeJob j SET j.leaseExpiresAt = :expiresAt " +
+           "WHERE j.id IN :ids AND j.leaseOwner = :owner AND j.status = :status")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+                    @Param("owner") String owner,
+                    @Param("expiresAt") LocalDateTime expiresAt,
+                    @Param("status") JudgeJob.JobStatus status);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE JudgeJob j SET j.status = :queued, j.leaseOwner = null, j.leaseExpiresAt = null " +
+           "WHERE j.status = :claimed AND j.leaseExpiresAt < :now")
+    int requeueExpired(@Param("now") LocalDateTime now,
+                       @Param("claimed") JudgeJob.JobStatus claimed,
+                       @Param("queued") JudgeJob.JobStatus queued);
+    
+    // Only the current lease holder may settle a job
+    @Modifying
+    @Transactional
+    @Query("UPDATE JudgeJob j SET j.status = :status, j.leaseOwner = null, j.leaseExpiresAt = null, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.leaseOwner = :owner")
+    int settle(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("status") JudgeJob.JobStatus status,
+               @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,170 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.TestCaseResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the evaluation pipeline. Every tag value comes from an enum and
+ * every meter is registered up front, so the number of series is fixed
+ * (languages x stages, languages x verdicts, ...) and recording is a map
+ * lookup plus an atomic update. Latency histograms use a fixed set of buckets
+ * rather than computed percentiles, so they aggregate across nodes in
+ * Prometheus at a bounded cost.
+ *
+ * <p>Queue depth and wait time are published by {@link JudgeQueue}, with the
+ * same latency buckets.
+ */
+@Component
+@RequiredArgsConstructor
+public class JudgeMetrics {
+
+    /** Where an evaluation spends its time. RUN includes the per-case comparisons, which COMPARE also times. */
+    public enum Stage {
+        WORKSPACE, COMPILE, RUN, COMPARE, PERSIST
+    }
+
+    public enum Verdict {
+        ACCEPTED, WRONG_ANSWER, TIME_LIMIT, MEMORY_LIMIT, OUTPUT_LIMIT, RUNTIME_ERROR, COMPILE_ERROR, SYSTEM_ERROR
+    }
+
+    static final Duration[] LATENCY_BUCKETS = {
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10),
+            Duration.ofSeconds(30)
+    };
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<CodingSubmission.ProgrammingLanguage, Map<Stage, Timer>> stages =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, Map<Verdict, Timer>> evaluations =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, Map<Verdict, Counter>> testCases =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, Counter> spawnFailures =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+
+    @PostConstruct
+    public void init() {
+        for (CodingSubmission.ProgrammingLanguage language : CodingSubmission.ProgrammingLanguage.values()) {
+            String lang = language.name().toLowerCase();
+
+            Map<Stage, Timer> byStage = new EnumMap<>(Stage.class);
+            for (Stage stage : Stage.values()) {
+                byStage.put(stage, Timer.builder("judge.stage")
+                        .tag("language", lang)
+                        .tag("stage", stage.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            stages.put(language, byStage);
+
+            Map<Verdict, Timer> byVerdict = new EnumMap<>(Verdict.class);
+            Map<Verdict, Counter> caseOutcomes = new EnumMap<>(Verdict.class);
+            for (Verdict verdict : Verdict.values()) {
+                String tag = verdict.name().toLowerCase();
+                byVerdict.put(verdict, Timer.builder("judge.evaluation")
+                        .description("Time from pickup by a judge worker to the persisted verdict")
+                        .tag("language", lang)
+                        .tag("verdict", tag)
+                        .serviceLevelObjectives(LATENCY_BUCKETS)
+                        .register(meterRegistry));
+                if (verdict != Verdict.COMPILE_ERROR && verdict != Verdict.SYSTEM_ERROR) {
+                    caseOutcomes.put(verdict, Counter.builder("judge.test.cases")
+                            .tag("language", lang)
+                            .tag("verdict", tag)
+                            .register(meterRegistry));
+                }
+            }
+            evaluations.put(language, byVerdict);
+            testCases.put(language, caseOutcomes);
+
+            spawnFailures.put(language, Counter.builder("judge.process.spawn.failures")
+                    .tag("language", lang)
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordStage(Stage stage, CodingSubmission.ProgrammingLanguage language, long nanos) {
+        if (language != null) {
+            stages.get(language).get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Counts one finished test case by outcome; time limits show up as {@code verdict=time_limit}. */
+    public void recordTestCase(CodingSubmission.ProgrammingLanguage language, ExecutionResult result, boolean passed) {
+        if (language != null) {
+            testCases.get(language).get(passed ? Verdict.ACCEPTED : caseVerdict(result)).increment();
+        }
+    }
+
+    public void recordEvaluation(CodingSubmission submission, long nanos) {
+        if (submission.getLanguage() != null) {
+            evaluations.get(submission.getLanguage()).get(verdictOf(submission)).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordSpawnFailure(CodingSubmission.ProgrammingLanguage language) {
+        if (language != null) {
+            spawnFailures.get(language).increment();
+        }
+    }
+
+    static Verdict verdictOf(CodingSubmission submission) {
+        CodingSubmission.SubmissionStatus status = submission.getStatus();
+        if (status == CodingSubmission.SubmissionStatus.TIMEOUT) {
+            return Verdict.TIME_LIMIT;
+        }
+        if (status != CodingSubmission.SubmissionStatus.COMPLETED) {
+            return submission.getCompilationError() != null ? Verdict.COMPILE_ERROR : Verdict.SYSTEM_ERROR;
+        }
+        Integer total = submission.getTotalTestCases();
+        if (total == null || total == 0) {
+            return Verdict.SYSTEM_ERROR;
+        }
+        if (submission.getTestCasesPassed() != null && submission.getTestCasesPassed().equals(total)) {
+            return Verdict.ACCEPTED;
+        }
+        // The submission is judged by its first failing case
+        return submission.getTestCaseResults().stream()
+                .filter(result -> !result.isPassed())
+                .findFirst()
+                .map(TestCaseResult::getVerdict)
+                .map(JudgeMetrics::verdictOf)
+                .orElse(Verdict.WRONG_ANSWER);
+    }
+
+    private static Verdict caseVerdict(ExecutionResult result) {
+        return result.isSuccess() ? Verdict.WRONG_ANSWER : verdictOf(result.getError());
+    }
+
+    // Matches the messages the runners put on a failed run
+    private static Verdict verdictOf(String message) {
+        if (message == null) {
+            return Verdict.RUNTIME_ERROR;
+        }
+        if (message.startsWith("Wrong answer")) {
+            return Verdict.WRONG_ANSWER;
+        }
+        if (message.startsWith("Execution timeout")) {
+            return Verdict.TIME_LIMIT;
+        }
+        if (message.startsWith("Memory limit exceeded")) {
+            return Verdict.MEMORY_LIMIT;
+        }
+        if (message.startsWith("Output limit exceeded")) {
+            return Verdict.OUTPUT_LIMIT;
+        }
+        return Verdict.RUNTIME_ERROR;
+    }
+}
@@ -0,0 +1,6 @@
+package com.mockmate.model;
+
+// Scheduling class of judge work, highest priority first
+public enum JudgePriority {
+    INTERVIEW, PRACTICE, SCRATCH, REJUDGE
+}
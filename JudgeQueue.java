@@ -0,0 +1,186 @@
+package com.mockmate.service;
+
+import com.mockmate.model.JudgePriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process work queue for code evaluation. A fixed pool of judge
+ * workers drains the queue; when it is full new work is rejected with a
+ * {@link JudgeBusyException} instead of piling up on request threads.
+ *
+ * <p>Work is ordered by {@link JudgePriority} with aging: each class has a
+ * handicap, and a job ranks by its enqueue time plus that handicap. A practice
+ * job that has waited longer than its handicap therefore runs before newly
+ * arrived interview work, so no class can starve. The rank is fixed at enqueue
+ * time, which keeps the heap ordering valid.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JudgeQueue {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${judge.workers:4}")
+    private int workers;
+
+    @Value("${judge.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${judge.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    @Value("${judge.scheduling.practice-handicap-ms:15000}")
+    private long practiceHandicapMs;
+
+    @Value("${judge.scheduling.scratch-handicap-ms:30000}")
+    private long scratchHandicapMs;
+
+    @Value("${judge.scheduling.rejudge-handicap-ms:300000}")
+    private long rejudgeHandicapMs;
+
+    private ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<JudgePriority, AtomicInteger> depth = new EnumMap<>(JudgePriority.class);
+    private final Map<JudgePriority, Timer> waitTimers = new EnumMap<>(JudgePriority.class);
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "judge-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.prestartAllCoreThreads();
+        for (JudgePriority priority : JudgePriority.values()) {
+            String tag = priority.name().toLowerCase();
+            AtomicInteger count = meterRegistry.gauge("judge.queue.depth",
+                    Tags.of("class", tag), new AtomicInteger());
+            depth.put(priority, count);
+            waitTimers.put(priority, Timer.builder("judge.queue.wait")
+                    .tag("class", tag)
+                    .serviceLevelObjectives(JudgeMetrics.LATENCY_BUCKETS)
+                    .register(meterRegistry));
+        }
+        log.info("Judge queue started with {} workers and capacity {}", workers, queueCapacity);
+    }
+
+    public void submit(JudgePriority priority, Runnable job) {
+        // The queue itself is unbounded so it can reorder; capacity is enforced here
+        if (executor.getQueue().size() >= queueCapacity) {
+            log.warn("Judge queue full ({} waiting), rejecting {} work", executor.getQueue().size(), priority);
+            throw new JudgeBusyException("Judge is busy, please retry shortly", retryAfterSeconds);
+        }
+        depth.get(priority).incrementAndGet();
+        try {
+            executor.execute(new PrioritizedJob(priority, handicapNanos(priority), job));
+        } catch (RejectedExecutionException e) {
+            depth.get(priority).decrementAndGet();
+            throw new JudgeBusyException("Judge is shutting down, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Runs {@code job} on a judge worker and waits for its result, for callers
+     * that answer synchronously (scratch test runs).
+     */
+    public <T> T call(JudgePriority priority, Callable<T> job) throws Exception {
+        FutureTask<T> task = new FutureTask<>(job);
+        submit(priority, task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /** How much later than interview work a job of this class ranks when enqueued at the same time. */
+    public Duration handicap(JudgePriority priority) {
+        return Duration.ofMillis(switch (priority) {
+            case INTERVIEW -> 0L;
+            case PRACTICE -> practiceHandicapMs;
+            case SCRATCH -> scratchHandicapMs;
+            case REJUDGE -> rejudgeHandicapMs;
+        });
+    }
+
+    private long handicapNanos(JudgePriority priority) {
+        return handicap(priority).toNanos();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Judge workers did not finish in time, {} jobs dropped", executor.shutdownNow().size());
+        }
+    }
+
+    private final class PrioritizedJob implements Runnable, Comparable<PrioritizedJob> {
+
+        private final JudgePriority priority;
+        private final long enqueuedAt = System.nanoTime();
+        private final long rank;
+        private final long seq = sequence.incrementAndGet();
+        private final Runnable job;
+
+        private PrioritizedJob(JudgePriority priority, long handicapNanos, Runnable job) {
+            this.priority = priority;
+            this.rank = enqueuedAt + handicapNanos;
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            depth.get(priority).decrementAndGet();
+            waitTimers.get(priority).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            job.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedJob other) {
+            int byRank = Long.compare(rank - other.rank, 0);
+            return byRank != 0 ? byRank : Long.compare(seq, other.seq);
+        }
+    }
+}
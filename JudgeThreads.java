@@ -0,0 +1,43 @@
+package com.mockmate.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads that babysit judge processes: stdin feeders and stdout/stderr drains.
+ * They spend their lives blocked on pipes, so they come from an unbounded
+ * cached pool rather than the CPU-bound judge pools.
+ */
+@Component
+public class JudgeThreads {
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ExecutorService io = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "judge-io-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExecutorService io() {
+        return io;
+    }
+
+    /**
+     * Kills a judge process together with anything it spawned, so no
+     * grandchild keeps the output pipes open.
+     */
+    public static void killTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        io.shutdownNow();
+    }
+}
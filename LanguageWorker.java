@@ -0,0 +1,236 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One pre-started harness process speaking the {@link WorkerHarness} protocol.
+ * A worker is used by one caller at a time; any protocol violation, crash or
+ * timeout marks it broken so the pool throws it away. Processes a solution
+ * starts are killed with the worker. A harness that enforces its own budgets
+ * (in-JVM Java) ends itself with a {@code TIMEOUT} or {@code MEMORY} verdict.
+ */
+class LanguageWorker {
+
+    private final CodingSubmission.ProgrammingLanguage language;
+    private final Process process;
+    private final Path workDir;
+    private final String nonce;
+    private final InputStream fromWorker;
+    private final OutputStream toWorker;
+    private int runs;
+    private boolean broken;
+
+    private LanguageWorker(CodingSubmission.ProgrammingLanguage language, Process process, Path workDir, String nonce) {
+        this.language = language;
+        this.process = process;
+        this.workDir = workDir;
+        this.nonce = nonce;
+        this.fromWorker = new BufferedInputStream(process.getInputStream());
+        this.toWorker = new BufferedOutputStream(process.getOutputStream());
+    }
+
+    static LanguageWorker start(CodingSubmission.ProgrammingLanguage language, Path harnessDir, Path workDir,
+                                List<String> harnessArgs) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(WorkerHarness.command(language, harnessDir, harnessArgs));
+        pb.directory(workDir.toFile());
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        // Workers only get what they need to find their runtime
+        Map<String, String> env = pb.environment();
+        String path = env.get("PATH");
+        env.clear();
+        env.put("PATH", path == null ? "/usr/local/bin:/usr/bin:/bin" : path);
+        env.put("HOME", workDir.toString());
+
+        Process process = pb.start();
+        LanguageWorker worker = new LanguageWorker(language, process, workDir, UUID.randomUUID().toString());
+        worker.toWorker.write((worker.nonce + "\n").getBytes(StandardCharsets.UTF_8));
+        worker.toWorker.flush();
+        return worker;
+    }
+
+    WorkerResult run(Path artifactDir, String input, long timeoutMs, int outputLimit,
+                     ScheduledExecutorService watchdog) {
+        runs++;
+        return exchange("RUN", artifactDir, input, timeoutMs, outputLimit, watchdog);
+    }
+
+    /**
+     * Compiles a Java source into its own directory inside the harness JVM. The
+     * compiler's diagnostics come back as the output; no solution code runs.
+     */
+    WorkerResult compile(Path source, long timeoutMs, int outputLimit, ScheduledExecutorService watchdog) {
+        return exchange("COMPILE", source, null, timeoutMs, outputLimit, watchdog);
+    }
+
+    private WorkerResult exchange(String kind, Path target, String input, long timeoutMs, int outputLimit,
+                                  ScheduledExecutorService watchdog) {
+        byte[] data = input == null ? new byte[0] : input.getBytes(StandardCharsets.UTF_8);
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> timer = watchdog.schedule(() -> {
+            timedOut.set(true);
+            destroy();
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        long pid = process.pid();
+        ProcessStats.resetPeak(pid);
+        ProcessStats.Sample before = ProcessStats.read(pid);
+        long startNanos = System.nanoTime();
+
+        try {
+            toWorker.write((kind + "\t" + target + "\t" + data.length + "\t" + outputLimit + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            toWorker.write(data);
+            toWorker.flush();
+
+            String header = readLine();
+            String[] parts = header == null ? new String[0] : header.split(" ");
+            if ((parts.length != 4 && parts.length != 6) || !parts[0].equals(nonce)) {
+                broken = true;
+                return timedOut.get() ? WorkerResult.timeout() : WorkerResult.crashed();
+            }
+            if ("TIMEOUT".equals(parts[1])) {
+                broken = true;
+                return WorkerResult.timeout();
+            }
+            if ("MEMORY".equals(parts[1])) {
+                broken = true;
+                return WorkerResult.memoryLimitExceeded();
+            }
+            int outLength = Integer.parseInt(parts[2]);
+            int errLength = Integer.parseInt(parts[3]);
+            // The harness aborts the run and exits on its own once output passes the limit
+            if ("LIMIT".equals(parts[1]) || outLength > outputLimit || errLength > outputLimit) {
+                broken = true;
+                return WorkerResult.outputLimitExceeded();
+            }
+            String output = new String(fromWorker.readNBytes(outLength), StandardCharsets.UTF_8);
+            String error = new String(fromWorker.readNBytes(errLength), StandardCharsets.UTF_8);
+            WorkerResult result = new WorkerResult("OK".equals(parts[1]), output.trim(), error.trim(), false, false);
+
+            ProcessStats.Sample after = ProcessStats.read(pid);
+            result.wallTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (parts.length == 6) {
+                // The solution ran in a child of the harness, which measured it
+                result.cpuTimeMs = Long.parseLong(parts[4]);
+                result.memoryKb = Long.parseLong(parts[5]);
+            } else if (before != null && after != null) {
+                result.cpuTimeMs = after.getCpuTimeMs() - before.getCpuTimeMs();
+                result.memoryKb = after.getPeakRssKb();
+            }
+            return result;
+        } catch (IOException | NumberFormatException e) {
+            broken = true;
+            return timedOut.get() ? WorkerResult.timeout() : WorkerResult.crashed();
+        } finally {
+            timer.cancel(false);
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = fromWorker.read()) != -1 && b != '\n') {
+            line.write(b);
+            if (line.size() > 256) {
+                return null;
+            }
+        }
+        return b == -1 ? null : line.toString(StandardCharsets.UTF_8);
+    }
+
+    CodingSubmission.ProgrammingLanguage getLanguage() {
+        return language;
+    }
+
+    Path getWorkDir() {
+        return workDir;
+    }
+
+    int getRuns() {
+        return runs;
+    }
+
+    boolean isUsable() {
+        return !broken && process.isAlive();
+    }
+
+    void destroy() {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    static class WorkerResult {
+        private final boolean success;
+        private final String output;
+        private final String error;
+        private final boolean crashed;
+        private final boolean timedOut;
+        private Long wallTimeMs;
+        private Long cpuTimeMs;
+        private Long memoryKb;
+
+        WorkerResult(boolean success, String output, String error, boolean crashed, boolean timedOut) {
+            this.success = success;
+            this.output = output;
+            this.error = error;
+            this.crashed = crashed;
+            this.timedOut = timedOut;
+        }
+
+        static WorkerResult crashed() {
+            return new WorkerResult(false, "", "Worker crashed", true, false);
+        }
+
+        static WorkerResult outputLimitExceeded() {
+            return new WorkerResult(false, "", "Output limit exceeded", false, false);
+        }
+
+        static WorkerResult memoryLimitExceeded() {
+            return new WorkerResult(false, "", "Memory limit exceeded", false, false);
+        }
+
+        static WorkerResult timeout() {
+            return new WorkerResult(false, "", "Execution timeout", false, true);
+        }
+
+        boolean isSuccess() {
+            return success;
+        }
+
+        String getOutput() {
+            return output;
+        }
+
+        String getError() {
+            return error;
+        }
+
+        boolean isCrashed() {
+            return crashed;
+        }
+
+        boolean isTimedOut() {
+            return timedOut;
+        }
+
+        ExecutionResult toExecutionResult() {
+            return new ExecutionResult(success, output, error, wallTimeMs, cpuTimeMs, memoryKb);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of warm harness processes per language, so a test case costs a frame
+ * round-trip instead of a runtime start. A miss never blocks: the caller falls
+ * back to a cold process and the pool grows in the background up to its size.
+ * <p>
+ * Idle workers have never run any code. Runs go through a {@link Scope}, one
+ * per submission or scratch run: a worker that ran code in a scope is only
+ * reused by that scope, and is retired when the scope closes, after a fixed
+ * number of runs or as soon as it crashes. Whatever a solution leaves behind
+ * in a worker (threads, patched modules, files, a known nonce) therefore never
+ * meets another user's code or input.
+ * <p>
+ * With {@code judge.in-jvm-java} the Java workers also compile submissions, and
+ * enforce a CPU time and allocation budget per run from inside the harness JVM;
+ * either way a run stays inside a worker process of its own scope.
+ * <p>
+ * A worker outlives any single run, so it cannot sit in a per-run cgroup; the
+ * pool refuses to start when the cgroup sandbox is on rather than quietly
+ * running solutions without its limits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LanguageWorkerPool {
+
+    private final MeterRegistry meterRegistry;
+    private final CgroupSandbox cgroupSandbox;
+
+    @Value("${judge.worker-pool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${judge.worker-pool.size:4}")
+    private int size;
+
+    @Value("${judge.worker-pool.warmup:2}")
+    private int warmup;
+
+    @Value("${judge.worker-pool.max-runs:50}")
+    private int maxRuns;
+
+    @Value("${judge.worker-pool.dir:${java.io.tmpdir}/mockmate-workers}")
+    private String poolDir;
+
+    @Value("${judge.time-limit-ms:10000}")
+    private long timeLimitMs;
+
+    @Value("${judge.output-limit-bytes:1048576}")
+    private int outputLimitBytes;
+
+    @Value("${judge.in-jvm-java.enabled:false}")
+    private boolean inJvmJava;
+
+    @Value("${judge.in-jvm-java.cpu-limit-ms:10000}")
+    private long inJvmCpuLimitMs;
+
+    @Value("${judge.in-jvm-java.allocation-limit-mb:512}")
+    private long inJvmAllocationLimitMb;
+
+    private final Map<CodingSubmission.ProgrammingLanguage, BlockingDeque<LanguageWorker>> idle =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, AtomicInteger> live =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, Counter> hits =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, Counter> misses =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+    private final Map<CodingSubmission.ProgrammingLanguage, Counter> recycled =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+
+    private Path harnessDir;
+    private ExecutorService starter;
+    private ScheduledExecutorService watchdog;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            if (inJvmJava) {
+                log.warn("judge.in-jvm-java needs judge.worker-pool.enabled, Java runs in a fresh process");
+            }
+            return;
+        }
+        if (cgroupSandbox.isEnabled()) {
+            log.warn("Worker pool disabled: judge.cgroup.enabled runs every solution in its own cgroup");
+            enabled = false;
+            return;
+        }
+        try {
+            Path root = Paths.get(poolDir);
+            harnessDir = root.resolve("harness");
+            WorkerHarness.install(harnessDir);
+        } catch (IOException e) {
+            log.warn("Worker pool disabled, harness could not be installed: {}", e.getMessage());
+            enabled = false;
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enabled = false;
+            return;
+        }
+
+        starter = Executors.newFixedThreadPool(2, daemon("judge-worker-starter"));
+        watchdog = Executors.newSingleThreadScheduledExecutor(daemon("judge-worker-watchdog"));
+
+        for (CodingSubmission.ProgrammingLanguage language : CodingSubmission.ProgrammingLanguage.values()) {
+            if (!WorkerHarness.supports(language)) {
+                continue;
+            }
+            BlockingDeque<LanguageWorker> deque = new LinkedBlockingDeque<>();
+            idle.put(language, deque);
+            live.put(language, new AtomicInteger());
+            String tag = language.name().toLowerCase();
+            hits.put(language, Counter.builder("judge.worker.pool.acquire")
+                    .tag("language", tag).tag("result", "hit").register(meterRegistry));
+            misses.put(language, Counter.builder("judge.worker.pool.acquire")
+                    .tag("language", tag).tag("result", "miss").register(meterRegistry));
+            recycled.put(language, Counter.builder("judge.worker.pool.recycled")
+                    .tag("language", tag).register(meterRegistry));
+            meterRegistry.gauge("judge.worker.pool.idle",
+                    Tags.of("language", tag), deque, BlockingDeque::size);
+            for (int i = 0; i < Math.min(warmup, size); i++) {
+                spawn(language);
+            }
+        }
+        log.info("Worker pool enabled for {} (size {}, warm-up {}, max runs {}, in-JVM Java {})",
+                idle.keySet(), size, warmup, maxRuns, inJvmJava);
+    }
+
+    public boolean isEnabled(CodingSubmission.ProgrammingLanguage language) {
+        return enabled && idle.containsKey(language);
+    }
+
+    /**
+     * Compiles a Java source on an idle worker when {@code judge.in-jvm-java} is on.
+     * Compiling runs no solution code, so the worker stays idle for anyone. Returns
+     * {@code null} when no worker was available or it died, in which case the
+     * caller should run javac instead.
+     */
+    public LanguageWorker.WorkerResult compileJava(Path source, long timeoutMs, int outputLimit) {
+        if (!inJvmJava || !isEnabled(CodingSubmission.ProgrammingLanguage.JAVA)) {
+            return null;
+        }
+        LanguageWorker worker = acquire(CodingSubmission.ProgrammingLanguage.JAVA);
+        if (worker == null) {
+            return null;
+        }
+        LanguageWorker.WorkerResult result = worker.compile(source, timeoutMs, outputLimit, watchdog);
+        if (worker.isUsable()) {
+            idle.get(CodingSubmission.ProgrammingLanguage.JAVA).offerFirst(worker);
+        } else {
+            recycle(worker);
+        }
+        return result.isCrashed() ? null : result;
+    }
+
+    /** Opens a scope for the runs of one submission or scratch run; close it when they are done. */
+    public Scope openScope() {
+        return new Scope();
+    }
+
+    private LanguageWorker acquire(CodingSubmission.ProgrammingLanguage language) {
+        BlockingDeque<LanguageWorker> deque = idle.get(language);
+        LanguageWorker worker;
+        while ((worker = deque.pollFirst()) != null) {
+            if (worker.isUsable()) {
+                hits.get(language).increment();
+                return worker;
+            }
+            retire(worker);
+        }
+        misses.get(language).increment();
+        spawn(language);
+        return null;
+    }
+
+    // Replaces a worker that has run code with a fresh one
+    private void recycle(LanguageWorker worker) {
+        retire(worker);
+        spawn(worker.getLanguage());
+    }
+
+    private void retire(LanguageWorker worker) {
+        worker.destroy();
+        live.get(worker.getLanguage()).decrementAndGet();
+        recycled.get(worker.getLanguage()).increment();
+        deleteQuietly(worker.getWorkDir());
+    }
+
+    private void spawn(CodingSubmission.ProgrammingLanguage language) {
+        AtomicInteger count = live.get(language);
+        if (count.incrementAndGet() > size) {
+            count.decrementAndGet();
+            return;
+        }
+        starter.execute(() -> {
+            try {
+                Path workDir = Files.createTempDirectory(Files.createDirectories(Paths.get(poolDir)), "work-");
+                idle.get(language).offerLast(LanguageWorker.start(language, harnessDir, workDir, harnessArgs(language)));
+            } catch (IOException e) {
+                count.decrementAndGet();
+                log.warn("Could not start {} worker: {}", language, e.getMessage());
+            }
+        });
+    }
+
+    private List<String> harnessArgs(CodingSubmission.ProgrammingLanguage language) {
+        if (!inJvmJava || language != CodingSubmission.ProgrammingLanguage.JAVA) {
+            return List.of();
+        }
+        return List.of(Long.toString(inJvmCpuLimitMs), Long.toString(inJvmAllocationLimitMb * 1024 * 1024));
+    }
+
+    private void deleteQuietly(Path dir) {
+        try (var stream = Files.walk(dir)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            log.debug("Could not delete worker directory {}", dir, e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The workers used by one submission or scratch run. Concurrent runs of the
+     * same scope may each take a worker; a worker goes back to the scope, never
+     * to the pool.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final Deque<LanguageWorker> used = new ConcurrentLinkedDeque<>();
+        private volatile boolean closed;
+
+        private Scope() {
+        }
+
+        /**
+         * Runs the artifact on a warm worker. Returns {@code null} when no worker was
+         * available or the worker died mid-run, in which case the caller should use
+         * a fresh process instead.
+         */
+        LanguageWorker.WorkerResult tryRun(CompiledArtifact artifact, String input) {
+            CodingSubmission.ProgrammingLanguage language = artifact.getLanguage();
+            LanguageWorker worker = used.pollFirst();
+            if (worker != null && (worker.getLanguage() != language || !worker.isUsable())) {
+                recycle(worker);
+                worker = null;
+            }
+            if (worker != null) {
+                hits.get(language).increment();
+            } else {
+                worker = acquire(language);
+                if (worker == null) {
+                    return null;
+                }
+            }
+            LanguageWorker.WorkerResult result = worker.run(artifact.getDirectory(), input,
+                    timeLimitMs, outputLimitBytes, watchdog);
+            release(worker);
+            return result.isCrashed() ? null : result;
+        }
+
+        private void release(LanguageWorker worker) {
+            if (!worker.isUsable() || worker.getRuns() >= maxRuns) {
+                recycle(worker);
+                return;
+            }
+            used.offerFirst(worker);
+            // A run that outlived the scope (a cancelled case) must not leave its worker behind
+            if (closed && used.remove(worker)) {
+                recycle(worker);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            LanguageWorker worker;
+            while ((worker = used.pollFirst()) != null) {
+                recycle(worker);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        starter.shutdownNow();
+        watchdog.shutdownNow();
+        idle.values().forEach(deque -> deque.forEach(LanguageWorker::destroy));
+    }
+}
@@ -0,0 +1,226 @@
+package com.mockmate.service;
+
+import com.mockmate.model.Question;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.regex.Pattern;
+
+/**
+ * Compares program output with the expected output while reading both a chunk
+ * at a time, so neither side is copied, trimmed or split in memory. Stops at
+ * the first difference and reports where it is in the program's output.
+ *
+ * <ul>
+ *   <li>{@code EXACT}: character for character, ignoring whitespace at the very
+ *   start and end of the output (the same as comparing trimmed strings).</li>
+ *   <li>{@code WHITESPACE}: token by token; any run of whitespace, including
+ *   line breaks, matches any other.</li>
+ *   <li>{@code FLOAT_TOLERANCE}: like {@code WHITESPACE}, but tokens that are
+ *   both decimal numbers match when they differ by at most the tolerance,
+ *   absolute or relative.</li>
+ * </ul>
+ */
+final class OutputComparator {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int SNIPPET_LENGTH = 32;
+    // Longer tokens are never numbers; they are compared as text without being buffered
+    private static final int MAX_NUMBER_LENGTH = 64;
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    static final Result MATCH = new Result(true, 0, 0, null, null);
+
+    private OutputComparator() {
+    }
+
+    static Result compare(Reader actual, Reader expected, Question.ComparisonMode mode, double tolerance) {
+        Source a = new Source(actual);
+        Source e = new Source(expected);
+        try {
+            return switch (mode) {
+                case EXACT -> compareExact(a, e);
+                case WHITESPACE -> compareTokens(a, e, false, tolerance);
+                case FLOAT_TOLERANCE -> compareTokens(a, e, true, tolerance);
+            };
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Result compareExact(Source a, Source e) throws IOException {
+        a.skip(Source.TRIMMED);
+        e.skip(Source.TRIMMED);
+        while (true) {
+            int ca = a.peek();
+            int ce = e.peek();
+            if (ca < 0 || ce < 0) {
+                // Whatever is left on the longer side must be trailing whitespace
+                Source rest = ca < 0 ? e : a;
+                long line = a.line;
+                long column = a.column;
+                rest.skip(Source.TRIMMED);
+                return rest.peek() < 0 ? MATCH : mismatch(a, e, line, column);
+            }
+            if (ca != ce) {
+                return mismatch(a, e, a.line, a.column);
+            }
+            a.next();
+            e.next();
+        }
+    }
+
+    private static Result compareTokens(Source a, Source e, boolean numeric, double tolerance) throws IOException {
+        while (true) {
+            a.skip(Source.WHITESPACE);
+            e.skip(Source.WHITESPACE);
+            long line = a.line;
+            long column = a.column;
+            if (a.peek() < 0 || e.peek() < 0) {
+                return a.peek() < 0 && e.peek() < 0 ? MATCH : mismatch(a, e, line, column);
+            }
+
+            StringBuilder ta = a.readToken(MAX_NUMBER_LENGTH);
+            StringBuilder te = e.readToken(MAX_NUMBER_LENGTH);
+            boolean completeA = a.atTokenEnd();
+            boolean completeE = e.atTokenEnd();
+
+            if (numeric && completeA && completeE && numbersMatch(ta, te, tolerance)) {
+                continue;
+            }
+            if (completeA != completeE || !ta.toString().contentEquals(te)) {
+                return mismatch(line, column, ta, te, a, e);
+            }
+            // Both tokens are long: finish them character by character
+            while (!a.atTokenEnd() && !e.atTokenEnd()) {
+                if (a.peek() != e.peek()) {
+                    return mismatch(a, e, a.line, a.column);
+                }
+                a.next();
+                e.next();
+            }
+            if (a.atTokenEnd() != e.atTokenEnd()) {
+                return mismatch(a, e, a.line, a.column);
+            }
+        }
+    }
+
+    private static boolean numbersMatch(CharSequence a, CharSequence e, double tolerance) {
+        if (!DECIMAL.matcher(a).matches() || !DECIMAL.matcher(e).matches()) {
+            return false;
+        }
+        double x = Double.parseDouble(a.toString());
+        double y = Double.parseDouble(e.toString());
+        double diff = Math.abs(x - y);
+        return diff <= tolerance || diff <= tolerance * Math.abs(y);
+    }
+
+    private static Result mismatch(Source a, Source e, long line, long column) throws IOException {
+        return new Result(false, line, column, e.snippet(new StringBuilder()), a.snippet(new StringBuilder()));
+    }
+
+    private static Result mismatch(long line, long column, StringBuilder ta, StringBuilder te,
+                                   Source a, Source e) throws IOException {
+        return new Result(false, line, column, e.snippet(te), a.snippet(ta));
+    }
+
+    /**
+     * Outcome of a comparison. On a mismatch, {@code line} and {@code column} are
+     * 1-based positions in the program's output, and the snippets show the
+     * beginning of what differs on each side.
+     */
+    record Result(boolean matched, long line, long column, String expected, String actual) {
+
+        String describe() {
+            if (matched) {
+                return "Output matches";
+            }
+            return "Mismatch at line " + line + ", column " + column
+                    + ": expected " + quote(expected) + ", got " + quote(actual);
+        }
+
+        private static String quote(String snippet) {
+            return snippet.isEmpty() ? "<end of output>" : "\"" + snippet + "\"";
+        }
+    }
+
+    /** Buffered reader over a {@link Reader} that tracks the line and column of the next character. */
+    private static final class Source {
+
+        private static final int TRIMMED = 0;
+        private static final int WHITESPACE = 1;
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private long line = 1;
+        private long column = 1;
+
+        private Source(Reader reader) {
+            this.reader = reader;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+
+        private void next() throws IOException {
+            int c = peek();
+            if (c < 0) {
+                return;
+            }
+            position++;
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+
+        // TRIMMED matches String.trim (anything up to U+0020); WHITESPACE is Character.isWhitespace
+        private void skip(int kind) throws IOException {
+            int c;
+            while ((c = peek()) >= 0 && (kind == TRIMMED ? c <= ' ' : Character.isWhitespace(c))) {
+                next();
+            }
+        }
+
+        private boolean atTokenEnd() throws IOException {
+            int c = peek();
+            return c < 0 || Character.isWhitespace(c);
+        }
+
+        private StringBuilder readToken(int max) throws IOException {
+            StringBuilder token = new StringBuilder();
+            while (token.length() < max && !atTokenEnd()) {
+                token.append((char) peek());
+                next();
+            }
+            return token;
+        }
+
+        // Extends what was already read with a few more characters, for feedback only
+        private String snippet(StringBuilder start) throws IOException {
+            if (start.length() > SNIPPET_LENGTH) {
+                return start.substring(0, SNIPPET_LENGTH);
+            }
+            int c;
+            while (start.length() < SNIPPET_LENGTH && (c = peek()) >= 0 && c != '\n' && c != '\r') {
+                start.append((char) c);
+                next();
+            }
+            return start.toString();
+        }
+    }
+}
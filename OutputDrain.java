@@ -0,0 +1,67 @@
+package com.mockmate.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads one process stream from the moment the process starts, keeping at most
+ * {@code limit} bytes. Going over the limit triggers {@code onOverflow} (which
+ * kills the process) and everything after that is discarded, so memory use
+ * stays bounded however much the solution prints.
+ */
+class OutputDrain implements Runnable {
+
+    private final InputStream in;
+    private final int limit;
+    private final Runnable onOverflow;
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile boolean overflowed;
+
+    OutputDrain(InputStream in, int limit, Runnable onOverflow) {
+        this.in = in;
+        this.limit = limit;
+        this.onOverflow = onOverflow;
+    }
+
+    @Override
+    public void run() {
+        byte[] buffer = new byte[8192];
+        try (in) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (overflowed) {
+                    continue;
+                }
+                int room = limit - captured.size();
+                if (n > room) {
+                    captured.write(buffer, 0, room);
+                    overflowed = true;
+                    onOverflow.run();
+                } else {
+                    captured.write(buffer, 0, n);
+                }
+            }
+        } catch (IOException e) {
+            // The process was killed or closed its end; whatever we have is the output
+        } finally {
+            done.countDown();
+        }
+    }
+
+    boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Waits for the stream to hit EOF and returns what was captured.
+     */
+    String await(long timeoutMs) throws InterruptedException {
+        done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+}
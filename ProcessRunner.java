@@ -0,0 +1,134 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one solution as a fresh OS process: feeds stdin, drains capped stdout and
+ * stderr, enforces the time limit and measures resource usage. When the cgroup
+ * sandbox is available the process runs inside its own cgroup and the cgroup's
+ * accounting replaces /proc sampling.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProcessRunner {
+
+    private static final long DRAIN_GRACE_MS = 1000;
+
+    private final JudgeThreads judgeThreads;
+    private final CgroupSandbox cgroupSandbox;
+    private final JudgeMetrics judgeMetrics;
+
+    @Value("${judge.time-limit-ms:10000}")
+    private long timeLimitMs;
+
+    @Value("${judge.output-limit-bytes:1048576}")
+    private int outputLimitBytes;
+
+    ExecutionResult run(CodingSubmission.ProgrammingLanguage language, Path workDir, List<String> command,
+                        TestCaseData input) {
+        CgroupSandbox.Cgroup cgroup = cgroupSandbox.create();
+        Process proc = null;
+        try {
+            ProcessBuilder pb = new ProcessBuilder(cgroup != null ? cgroup.wrap(command) : command);
+            pb.directory(workDir.toFile());
+
+            long startNanos = System.nanoTime();
+            try {
+                proc = pb.start();
+            } catch (IOException e) {
+                judgeMetrics.recordSpawnFailure(language);
+                throw e;
+            }
+            Process started = proc;
+
+            // Drain both pipes from the start so a chatty solution never blocks on a full pipe
+            Runnable kill = () -> kill(started, cgroup);
+            OutputDrain stdout = new OutputDrain(proc.getInputStream(), outputLimitBytes, kill);
+            OutputDrain stderr = new OutputDrain(proc.getErrorStream(), outputLimitBytes, kill);
+            judgeThreads.io().execute(stdout);
+            judgeThreads.io().execute(stderr);
+            judgeThreads.io().execute(() -> feedInput(started, input));
+
+            // Sample /proc while waiting: quickly at first so short runs still get a reading
+            long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(timeLimitMs);
+            long pollMs = 1;
+            ProcessStats.Sample usage = null;
+            while (!proc.waitFor(pollMs, TimeUnit.MILLISECONDS)) {
+                ProcessStats.Sample sample = ProcessStats.read(proc.pid());
+                usage = sample != null ? sample : usage;
+                if (System.nanoTime() > deadline) {
+                    kill(proc, cgroup);
+                    return withUsage(new ExecutionResult(false, "", "Execution timeout"), startNanos, usage, cgroup);
+                }
+                pollMs = Math.min(pollMs * 2, 20);
+            }
+
+            String output = stdout.await(DRAIN_GRACE_MS).trim();
+            String error = stderr.await(DRAIN_GRACE_MS).trim();
+
+            ExecutionResult result;
+            if (stdout.isOverflowed() || stderr.isOverflowed()) {
+                result = new ExecutionResult(false, "", "Output limit exceeded");
+            } else if (cgroup != null && cgroup.wasOomKilled()) {
+                result = new ExecutionResult(false, "", "Memory limit exceeded");
+            } else {
+                result = new ExecutionResult(proc.exitValue() == 0, output, error);
+            }
+            return withUsage(result, startNanos, usage, cgroup);
+
+        } catch (InterruptedException e) {
+            if (proc != null) {
+                kill(proc, cgroup);
+            }
+            Thread.currentThread().interrupt();
+            return new ExecutionResult(false, "", "Execution interrupted");
+        } catch (Exception e) {
+            if (proc != null) {
+                kill(proc, cgroup);
+            }
+            return new ExecutionResult(false, "", e.getMessage());
+        } finally {
+            if (cgroup != null) {
+                cgroup.remove();
+            }
+        }
+    }
+
+    private void kill(Process proc, CgroupSandbox.Cgroup cgroup) {
+        if (cgroup != null) {
+            cgroup.killAll();
+        }
+        JudgeThreads.killTree(proc);
+    }
+
+    private ExecutionResult withUsage(ExecutionResult result, long startNanos, ProcessStats.Sample usage,
+                                      CgroupSandbox.Cgroup cgroup) {
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        Long cpuMs = cgroup != null ? cgroup.cpuTimeMs() : null;
+        Long memoryKb = cgroup != null ? cgroup.peakMemoryKb() : null;
+        if (cpuMs == null && usage != null) {
+            cpuMs = usage.getCpuTimeMs();
+        }
+        if (memoryKb == null && usage != null) {
+            memoryKb = usage.getPeakRssKb();
+        }
+        return result.withUsage(wallMs, cpuMs, memoryKb);
+    }
+
+    private void feedInput(Process proc, TestCaseData input) {
+        try (OutputStream stdin = proc.getOutputStream()) {
+            input.writeTo(stdin);
+        } catch (IOException e) {
+            // The solution exited without reading all of its input; that is its business
+        }
+    }
+}
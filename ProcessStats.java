@@ -0,0 +1,82 @@
+package com.mockmate.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Linux-only resource readings for judge processes, taken from /proc while the
+ * process is alive. On other platforms every reading is {@code null}.
+ */
+final class ProcessStats {
+
+    static final boolean SUPPORTED = Files.isReadable(Paths.get("/proc/self/status"))
+            && Files.isReadable(Paths.get("/proc/self/stat"));
+
+    // USER_HZ is 100 on every mainstream Linux architecture
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+    private ProcessStats() {
+    }
+
+    /**
+     * Reads accumulated CPU time (user + system) and peak resident set size.
+     */
+    static Sample read(long pid) {
+        if (!SUPPORTED) {
+            return null;
+        }
+        try {
+            Path proc = Paths.get("/proc", Long.toString(pid));
+            String stat = Files.readString(proc.resolve("stat"));
+            // Fields after the parenthesised command name start at field 3 (state)
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+
+            long peakKb = 0;
+            for (String line : Files.readAllLines(proc.resolve("status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    peakKb = Long.parseLong(line.substring(6).replace("kB", "").trim());
+                    break;
+                }
+            }
+            return new Sample(ticks * 1000 / CLOCK_TICKS_PER_SECOND, peakKb);
+        } catch (IOException | RuntimeException e) {
+            // The process exited between samples
+            return null;
+        }
+    }
+
+    /**
+     * Resets the peak RSS watermark so a long-lived worker reports per-run peaks.
+     */
+    static void resetPeak(long pid) {
+        if (!SUPPORTED) {
+            return;
+        }
+        try {
+            Files.writeString(Paths.get("/proc", Long.toString(pid), "clear_refs"), "5");
+        } catch (IOException e) {
+            // Not permitted on this kernel; peaks become lifetime peaks
+        }
+    }
+
+    static class Sample {
+        private final long cpuTimeMs;
+        private final long peakRssKb;
+
+        Sample(long cpuTimeMs, long peakRssKb) {
+            this.cpuTimeMs = cpuTimeMs;
+            this.peakRssKb = peakRssKb;
+        }
+
+        long getCpuTimeMs() {
+            return cpuTimeMs;
+        }
+
+        long getPeakRssKb() {
+            return peakRssKb;
+        }
+    }
+}
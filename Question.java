@@ -52,6 +52,20 @@ public class Question {
     
     private boolean isActive = true;
     
+    // Default evaluation policy for coding submissions; null falls back to the judge default
+    @Enumerated(EnumType.STRING)
+    @Column(name = "evaluation_policy")
+    private CodingSubmission.EvaluationPolicy evaluationPolicy;
+    
+    // How program output is checked against expected output; null means EXACT
+    @Enumerated(EnumType.STRING)
+    @Column(name = "comparison_mode")
+    private ComparisonMode comparisonMode;
+    
+    // Only used by FLOAT_TOLERANCE; null falls back to the judge default
+    @Column(name = "float_tolerance")
+    private Double floatTolerance;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -82,6 +96,10 @@ public class Question {
         EASY, MEDIUM, HARD
     }
     
+    public enum ComparisonMode {
+        EXACT, WHITESPACE, FLOAT_TOLERANCE
+    }
+    
     public enum Category {
         JAVA, PYTHON, CPP, DATA_STRUCTURES, ALGORITHMS, SYSTEM_DESIGN,
         DATABASE, NETWORKING, BEHAVIORAL, LEADERSHIP, PROBLEM_SOLVING
@@ -0,0 +1,52 @@
+package com.mockmate.controller;
+
+import com.mockmate.dto.RejudgeJobDto;
+import com.mockmate.dto.RejudgeRequest;
+import com.mockmate.service.RejudgeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/rejudge")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class RejudgeController {
+
+    private final RejudgeService rejudgeService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RejudgeJobDto> startRejudge(
+            @Valid @RequestBody RejudgeRequest request,
+            Authentication authentication) {
+        var job = rejudgeService.start(request, authentication.getName());
+        return ResponseEntity.ok(RejudgeJobDto.fromRejudgeJob(job));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<RejudgeJobDto>> getRejudgeJobs() {
+        List<RejudgeJobDto> dtos = rejudgeService.getJobs().stream()
+                .map(RejudgeJobDto::fromRejudgeJob)
+                .toList();
+        return ResponseEntity.ok(dtos);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RejudgeJobDto> getRejudgeJob(@PathVariable Long id) {
+        return ResponseEntity.ok(RejudgeJobDto.fromRejudgeJob(rejudgeService.getJob(id)));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RejudgeJobDto> cancelRejudge(@PathVariable Long id) {
+        return ResponseEntity.ok(RejudgeJobDto.fromRejudgeJob(rejudgeService.cancel(id)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mockmate.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Bulk re-evaluation of past submissions for one question; progress is checkpointed so it can resume
+@Entity
+@Table(name = "rejudge_jobs")
+@Data
+@NoArgsConstructor
+public class RejudgeJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @Column(name = "question_id")
+    private Long questionId;
+    
+    // Optional filters
+    @Enumerated(EnumType.STRING)
+    private CodingSubmission.ProgrammingLanguage language;
+    
+    @Column(name = "submitted_from")
+    private LocalDateTime submittedFrom;
+    
+    @Column(name = "submitted_to")
+    private LocalDateTime submittedTo;
+    
+    @Enumerated(EnumType.STRING)
+    private RejudgeStatus status = RejudgeStatus.RUNNING;
+    
+    // Keyset cursor: every submission with a smaller or equal id has been rejudged
+    @Column(name = "last_submission_id")
+    private Long lastSubmissionId = 0L;
+    
+    private long total;
+    
+    private long processed;
+    
+    @Column(name = "scores_changed")
+    private long scoresChanged;
+    
+    private long failures;
+    
+    @Column(name = "requested_by", length = 100)
+    private String requestedBy;
+    
+    // Node driving the job and when it last checkpointed; a stale heartbeat lets another node take over
+    @Column(name = "owner", length = 100)
+    private String owner;
+    
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+    
+    @Version
+    private Long version;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    public enum RejudgeStatus {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+}
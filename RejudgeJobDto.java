@@ -0,0 +1,44 @@
+package com.mockmate.dto;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.RejudgeJob;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RejudgeJobDto {
+    private Long id;
+    private Long questionId;
+    private CodingSubmission.ProgrammingLanguage language;
+    private LocalDateTime submittedFrom;
+    private LocalDateTime submittedTo;
+    private RejudgeJob.RejudgeStatus status;
+    private long total;
+    private long processed;
+    private long scoresChanged;
+    private long failures;
+    private double progressPercent;
+    private String requestedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    
+    public static RejudgeJobDto fromRejudgeJob(RejudgeJob job) {
+        RejudgeJobDto dto = new RejudgeJobDto();
+        dto.setId(job.getId());
+        dto.setQuestionId(job.getQuestionId());
+        dto.setLanguage(job.getLanguage());
+        dto.setSubmittedFrom(job.getSubmittedFrom());
+        dto.setSubmittedTo(job.getSubmittedTo());
+        dto.setStatus(job.getStatus());
+        dto.setTotal(job.getTotal());
+        dto.setProcessed(job.getProcessed());
+        dto.setScoresChanged(job.getScoresChanged());
+        dto.setFailures(job.getFailures());
+        dto.setProgressPercent(job.getTotal() == 0 ? 100.0 : Math.min(100.0, job.getProcessed() * 100.0 / job.getTotal()));
+        dto.setRequestedBy(job.getRequestedBy());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+}
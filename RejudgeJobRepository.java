@@ -0,0 +1,27 @@
+package com.mockmate.repository;
+
+import com.mockmate.model.RejudgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RejudgeJobRepository extends JpaRepository<RejudgeJob, Long> {
+    
+    List<RejudgeJob> findByStatus(RejudgeJob.RejudgeStatus status);
+    
+    List<RejudgeJob> findAllByOrderByIdDesc();
+    
+    // Bulk update, so it does not bump the version the driver checkpoints against
+    @Modifying
+    @Transactional
+    @Query("UPDATE RejudgeJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.owner = :owner")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
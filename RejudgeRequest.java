@@ -0,0 +1,21 @@
+package com.mockmate.dto;
+
+import com.mockmate.model.CodingSubmission;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RejudgeRequest {
+    
+    @NotNull
+    private Long questionId;
+    
+    // Optional filters; null means all
+    private CodingSubmission.ProgrammingLanguage language;
+    
+    private LocalDateTime submittedFrom;
+    
+    private LocalDateTime submittedTo;
+}
@@ -0,0 +1,271 @@
+package com.mockmate.service;
+
+import com.mockmate.dto.RejudgeRequest;
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.JudgePriority;
+import com.mockmate.model.RejudgeJob;
+import com.mockmate.repository.CodingSubmissionRepository;
+import com.mockmate.repository.QuestionRepository;
+import com.mockmate.repository.RejudgeJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk re-evaluation of past submissions after a question's test cases change.
+ * A driver thread walks the matching submissions in id order, one keyset page at
+ * a time, and judges each page in parallel at {@link JudgePriority#REJUDGE}.
+ * Progress is checkpointed after every page, so a job interrupted by a restart
+ * resumes (on any node) from the last finished page once its heartbeat goes
+ * stale. Re-judging a submission twice is harmless.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RejudgeService {
+
+    private static final List<CodingSubmission.SubmissionStatus> FINISHED = List.of(
+            CodingSubmission.SubmissionStatus.COMPLETED,
+            CodingSubmission.SubmissionStatus.FAILED,
+            CodingSubmission.SubmissionStatus.TIMEOUT);
+
+    private final RejudgeJobRepository jobRepository;
+    private final CodingSubmissionRepository submissionRepository;
+    private final QuestionRepository questionRepository;
+    private final CodingEvaluationService evaluationService;
+    private final JudgeQueue judgeQueue;
+    private final VerdictCache verdictCache;
+
+    @Value("${judge.rejudge.page-size:50}")
+    private int pageSize;
+
+    @Value("${judge.rejudge.parallelism:0}")
+    private int parallelism;
+
+    @Value("${judge.rejudge.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${judge.rejudge.stale-after-ms:60000}")
+    private long staleAfterMs;
+
+    @Value("${judge.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final Map<Long, Future<?>> running = new ConcurrentHashMap<>();
+
+    private final AtomicInteger driverCount = new AtomicInteger();
+
+    private final ExecutorService drivers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "judge-rejudge-" + driverCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Job heartbeats stay off Spring's shared scheduler, where a slow task could make a live job look stale
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "judge-rejudge-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        heartbeats.scheduleWithFixedDelay(this::heartbeatAndResume, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    public RejudgeJob start(RejudgeRequest request, String username) {
+        questionRepository.findById(request.getQuestionId())
+                .orElseThrow(() -> new RuntimeException("Question not found"));
+
+        RejudgeJob job = new RejudgeJob();
+        job.setQuestionId(request.getQuestionId());
+        job.setLanguage(request.getLanguage());
+        job.setSubmittedFrom(request.getSubmittedFrom());
+        job.setSubmittedTo(request.getSubmittedTo());
+        job.setRequestedBy(username);
+        job.setTotal(submissionRepository.countRejudge(job.getQuestionId(), 0L, FINISHED,
+                job.getLanguage(), job.getSubmittedFrom(), job.getSubmittedTo()));
+        job.setOwner(nodeId);
+        job.setHeartbeatAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        // Verdicts keyed on the old test cases are useless from here on
+        verdictCache.invalidateQuestion(job.getQuestionId());
+        launch(job.getId());
+        log.info("Rejudge {} started for question {} by {}: {} submissions",
+                job.getId(), job.getQuestionId(), username, job.getTotal());
+        return job;
+    }
+
+    public RejudgeJob getJob(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Rejudge job not found"));
+    }
+
+    public List<RejudgeJob> getJobs() {
+        return jobRepository.findAllByOrderByIdDesc();
+    }
+
+    public RejudgeJob cancel(Long id) {
+        RejudgeJob job = getJob(id);
+        if (job.getStatus() == RejudgeJob.RejudgeStatus.RUNNING) {
+            job.setStatus(RejudgeJob.RejudgeStatus.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            // Bumps the version, so the driver (on whichever node) stops at its next checkpoint
+            job = jobRepository.save(job);
+        }
+        Future<?> driver = running.get(id);
+        if (driver != null) {
+            driver.cancel(true);
+        }
+        return job;
+    }
+
+    private void launch(Long jobId) {
+        running.computeIfAbsent(jobId, id -> drivers.submit(() -> drive(id)));
+    }
+
+    private void drive(Long jobId) {
+        try {
+            RejudgeJob job = jobRepository.findById(jobId).orElse(null);
+            if (job == null || job.getStatus() != RejudgeJob.RejudgeStatus.RUNNING) {
+                return;
+            }
+            Semaphore inFlight = new Semaphore(parallelism > 0 ? parallelism : Math.max(1, judgeQueue.getWorkers() / 4));
+            while (true) {
+                List<CodingSubmission> page = submissionRepository.findRejudgePage(job.getQuestionId(),
+                        job.getLastSubmissionId(), FINISHED, job.getLanguage(),
+                        job.getSubmittedFrom(), job.getSubmittedTo(), PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<Future<Boolean>> outcomes = new ArrayList<>(page.size());
+                for (CodingSubmission submission : page) {
+                    inFlight.acquire();
+                    outcomes.add(enqueue(submission, inFlight));
+                }
+                for (Future<Boolean> outcome : outcomes) {
+                    try {
+                        if (outcome.get()) {
+                            job.setScoresChanged(job.getScoresChanged() + 1);
+                        }
+                    } catch (ExecutionException e) {
+                        log.warn("Rejudge {} could not re-evaluate a submission", jobId, e.getCause());
+                        job.setFailures(job.getFailures() + 1);
+                    }
+                }
+
+                job.setLastSubmissionId(page.get(page.size() - 1).getId());
+                job.setProcessed(job.getProcessed() + page.size());
+                job.setHeartbeatAt(LocalDateTime.now());
+                job = jobRepository.save(job);
+            }
+
+            job.setStatus(RejudgeJob.RejudgeStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+            log.info("Rejudge {} finished: {} submissions, {} scores changed, {} failures",
+                    jobId, job.getProcessed(), job.getScoresChanged(), job.getFailures());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Rejudge {} interrupted", jobId);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.info("Rejudge {} was cancelled or taken over by another node", jobId);
+        } catch (RuntimeException e) {
+            log.error("Rejudge {} failed", jobId, e);
+            jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(RejudgeJob.RejudgeStatus.FAILED);
+                job.setFinishedAt(LocalDateTime.now());
+                jobRepository.save(job);
+            });
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    // Resolves to whether the score changed; the permit is released when the run ends
+    private Future<Boolean> enqueue(CodingSubmission submission, Semaphore inFlight) throws InterruptedException {
+        FutureTask<Boolean> task = new FutureTask<>(() -> {
+            try {
+                return evaluationService.rejudge(submission);
+            } finally {
+                inFlight.release();
+            }
+        });
+        while (true) {
+            try {
+                judgeQueue.submit(JudgePriority.REJUDGE, task);
+                return task;
+            } catch (JudgeBusyException e) {
+                // Live traffic has filled the queue; back off rather than compete with it
+                TimeUnit.SECONDS.sleep(retryAfterSeconds);
+            }
+        }
+    }
+
+    /**
+     * Keeps the leases of jobs driven here fresh, and picks up running jobs whose
+     * driver went away (node restart or crash).
+     */
+    private void heartbeatAndResume() {
+        try {
+            heartbeatAndResumeOnce();
+        } catch (RuntimeException e) {
+            // Thrown out of the task, it would cancel every later heartbeat
+            log.warn("Rejudge heartbeat failed", e);
+        }
+    }
+
+    private void heartbeatAndResumeOnce() {
+        if (!running.isEmpty()) {
+            jobRepository.heartbeat(new ArrayList<>(running.keySet()), nodeId, LocalDateTime.now());
+        }
+        LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs));
+        for (RejudgeJob job : jobRepository.findByStatus(RejudgeJob.RejudgeStatus.RUNNING)) {
+            if (running.containsKey(job.getId())
+                    || (job.getHeartbeatAt() != null && job.getHeartbeatAt().isAfter(staleBefore))) {
+                continue;
+            }
+            try {
+                job.setOwner(nodeId);
+                job.setHeartbeatAt(LocalDateTime.now());
+                jobRepository.save(job);
+            } catch (ObjectOptimisticLockingFailureException e) {
+                continue; // another node claimed it first
+            }
+            log.info("Resuming rejudge {} after submission {}", job.getId(), job.getLastSubmissionId());
+            launch(job.getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        drivers.shutdownNow();
+    }
+}
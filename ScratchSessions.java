@@ -0,0 +1,179 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived per-user state for scratch runs ("Run" in the editor). A session
+ * keeps the user's last compiled artifact and a workspace directory between
+ * runs, so clicking Run again on unchanged code does not compile it again,
+ * and no workspace is borrowed per click. The kept artifact is marked as used
+ * in the {@link ArtifactCache} on every run, so the sweep does not delete it,
+ * and is resolved again if the cache dropped it anyway. Session workspaces are
+ * held outside the pool, which stays free for judging.
+ *
+ * <p>Each user has at most one session and one run in flight; a second
+ * concurrent run is rejected with {@link JudgeBusyException}. Sessions idle
+ * for {@code judge.scratch.ttl-seconds} are evicted, and at most
+ * {@code judge.scratch.max-sessions} exist per node (the least recently used
+ * idle one makes room), which bounds the disk held by workspaces.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScratchSessions {
+
+    private final WorkspaceManager workspaceManager;
+    private final ArtifactCache artifactCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${judge.scratch.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${judge.scratch.max-sessions:64}")
+    private int maxSessions;
+
+    @Value("${judge.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gaugeMapSize("judge.scratch.sessions", Tags.empty(), sessions);
+    }
+
+    /**
+     * Opens the user's session for one run, creating it if needed. Close it
+     * when the run is over, so the user can run again.
+     */
+    public Session open(String username) {
+        while (true) {
+            Session session = sessions.get(username);
+            if (session == null) {
+                makeRoom();
+                session = new Session(username);
+                Session existing = sessions.putIfAbsent(username, session);
+                session = existing != null ? existing : session;
+            }
+            if (!session.lock.tryLock()) {
+                throw new JudgeBusyException("A previous run is still in progress", 1);
+            }
+            if (!session.closed) {
+                return session;
+            }
+            // Evicted between lookup and lock; start over with a fresh one
+            session.lock.unlock();
+        }
+    }
+
+    private void makeRoom() {
+        if (sessions.size() < maxSessions) {
+            return;
+        }
+        boolean evicted = sessions.values().stream()
+                .sorted(Comparator.comparingLong(session -> session.lastUsedNanos))
+                .anyMatch(this::evict);
+        if (!evicted) {
+            throw new JudgeBusyException("Too many scratch sessions, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${judge.scratch.sweep-interval-ms:30000}")
+    public void evictIdle() {
+        long idleBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos(ttlSeconds);
+        sessions.values().stream()
+                .filter(session -> session.lastUsedNanos - idleBefore < 0)
+                .forEach(this::evict);
+    }
+
+    // Only idle sessions are evicted; one that is running is skipped
+    private boolean evict(Session session) {
+        if (!session.lock.tryLock()) {
+            return false;
+        }
+        try {
+            session.closed = true;
+            sessions.remove(session.username, session);
+            session.release();
+            return true;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(this::evict);
+    }
+
+    public final class Session implements AutoCloseable {
+
+        private final String username;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long lastUsedNanos = System.nanoTime();
+        private volatile boolean closed;
+
+        private String artifactKey;
+        private CompiledArtifact artifact;
+        private WorkspaceManager.Workspace workspace;
+
+        private Session(String username) {
+            this.username = username;
+        }
+
+        /**
+         * The artifact for this code, obtained from {@code compiler} only when the
+         * code changed or the cache swept the previous one away.
+         */
+        CompiledArtifact artifact(CodingSubmission.ProgrammingLanguage language, String code,
+                                  Supplier<CompiledArtifact> compiler) {
+            String key = JudgeHashing.sha256Hex(language.name(), code);
+            if (!key.equals(artifactKey) || !artifactCache.retain(artifact)) {
+                artifact = compiler.get();
+                artifactKey = key;
+            }
+            return artifact;
+        }
+
+        /** The session's workspace, emptied of whatever the previous run left behind. */
+        Path workspace() throws IOException {
+            if (workspace == null) {
+                workspace = workspaceManager.acquireHeld();
+            } else {
+                workspace.reset();
+            }
+            return workspace.getPath();
+        }
+
+        private void release() {
+            if (workspace != null) {
+                workspace.close();
+                workspace = null;
+            }
+            artifact = null;
+            artifactKey = null;
+        }
+
+        @Override
+        public void close() {
+            lastUsedNanos = System.nanoTime();
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mockmate.controller;
+
+import com.mockmate.dto.SimilarityMatchDto;
+import com.mockmate.service.SimilarityIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/mentor/similarity")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SimilarityController {
+
+    private final SimilarityIndex similarityIndex;
+
+    @GetMapping("/submissions/{id}")
+    @PreAuthorize("hasAnyRole('MENTOR', 'ADMIN')")
+    public ResponseEntity<List<SimilarityMatchDto>> getSimilarSubmissions(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<SimilarityMatchDto> dtos = similarityIndex.similarTo(id, Math.min(limit, 100)).stream()
+                .map(SimilarityMatchDto::fromMatch)
+                .toList();
+        return ResponseEntity.ok(dtos);
+    }
+
+    @GetMapping("/questions/{questionId}")
+    @PreAuthorize("hasAnyRole('MENTOR', 'ADMIN')")
+    public ResponseEntity<List<SimilarityMatchDto>> getMostSimilarPairs(
+            @PathVariable Long questionId,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<SimilarityMatchDto> dtos = similarityIndex.mostSimilar(questionId, Math.min(limit, 100)).stream()
+                .map(SimilarityMatchDto::fromMatch)
+                .toList();
+        return ResponseEntity.ok(dtos);
+    }
+
+    @GetMapping("/status")
+    @PreAuthorize("hasAnyRole('MENTOR', 'ADMIN')")
+    public ResponseEntity<SimilarityIndex.Status> getStatus() {
+        return ResponseEntity.ok(similarityIndex.getStatus());
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SimilarityIndex.Status> rebuild() {
+        similarityIndex.requestRebuild();
+        return ResponseEntity.accepted().body(similarityIndex.getStatus());
+    }
+}
@@ -0,0 +1,323 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.User;
+import com.mockmate.repository.CodingSubmissionRepository;
+import com.mockmate.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory plagiarism index over coding submissions. Every submission is
+ * reduced to its {@link CodeFingerprints winnowing fingerprints}, and per
+ * question an inverted index maps each fingerprint to the submissions that
+ * contain it, so finding the submissions most similar to one only touches the
+ * posting lists of its own fingerprints instead of comparing against every
+ * other submission. Submissions by the same user never match each other.
+ *
+ * <p>Similarity is the share of the smaller submission's fingerprints that
+ * the other one also has. Fingerprints found in more than
+ * {@code judge.similarity.common-fraction} of a question's submissions are
+ * treated as boilerplate (the starter code, the usual input parsing) and do
+ * not count as matches.
+ *
+ * <p>Submissions are indexed when their verdict is saved, and a periodic sync
+ * tails the submission table by id, which fills the index on startup, picks
+ * up submissions judged by other nodes and rebuilds it from scratch on
+ * request. Code never changes after submission, so an indexed submission is
+ * never reindexed. Each node holds its own copy of the index. The sync runs on
+ * its own thread: the startup load and a rebuild read the whole table and
+ * must not hold up the other scheduled tasks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarityIndex {
+
+    private final CodingSubmissionRepository submissionRepository;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${judge.similarity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${judge.similarity.k:5}")
+    private int k;
+
+    @Value("${judge.similarity.window:4}")
+    private int window;
+
+    @Value("${judge.similarity.common-fraction:0.3}")
+    private double commonFraction;
+
+    // Below this many submissions a question has no boilerplate yet, everything counts
+    @Value("${judge.similarity.common-min-submissions:10}")
+    private int commonMinSubmissions;
+
+    @Value("${judge.similarity.page-size:500}")
+    private int pageSize;
+
+    private final Map<Long, QuestionIndex> questions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> questionOfSubmission = new ConcurrentHashMap<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // One sync at a time; a tick that finds it busy is dropped
+    private final ExecutorService syncExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "judge-similarity-sync");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private volatile long watermark;
+    private volatile boolean rebuildRequested;
+    private volatile boolean rebuilding;
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gaugeMapSize("judge.similarity.submissions", Tags.empty(), questionOfSubmission);
+    }
+
+    public record Match(Long submissionId, String username, Long matchedSubmissionId, String matchedUsername,
+                        int sharedFingerprints, double similarity) {
+    }
+
+    public record Status(boolean enabled, int questions, int submissions, long watermark, boolean rebuilding) {
+    }
+
+    /** Indexes a submission whose verdict was just saved; a no-op if it is already indexed. */
+    public void add(CodingSubmission submission) {
+        if (enabled && submission.getId() != null) {
+            add(submission.getId(), submission.getQuestion().getId(), submission.getUser().getId(),
+                    submission.getLanguage(), submission.getCode());
+        }
+    }
+
+    private void add(Long id, Long questionId, Long userId, CodingSubmission.ProgrammingLanguage language,
+                     String code) {
+        if (questionOfSubmission.containsKey(id)) {
+            return;
+        }
+        long[] fingerprints = CodeFingerprints.of(code, language, k, window);
+        questions.computeIfAbsent(questionId, key -> new QuestionIndex()).add(id, userId, fingerprints);
+        questionOfSubmission.put(id, questionId);
+    }
+
+    /** Submissions by other users most similar to this one, best first. */
+    public List<Match> similarTo(Long submissionId, int limit) {
+        QuestionIndex index = indexOf(submissionId);
+        List<RawMatch> matches = index.read(() -> index.matches(submissionId, commonThreshold(index)));
+        matches.sort(RawMatch.BEST_FIRST);
+        return resolve(matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    /** The most similar pairs of submissions by different users on a question, best first. */
+    public List<Match> mostSimilar(Long questionId, int limit) {
+        QuestionIndex index = questions.get(questionId);
+        if (index == null) {
+            return List.of();
+        }
+        List<RawMatch> pairs = index.read(() -> {
+            int threshold = commonThreshold(index);
+            List<RawMatch> all = new ArrayList<>();
+            for (Long id : index.fingerprints.keySet()) {
+                // Each pair is found from both ends, keep it once
+                index.matches(id, threshold).stream()
+                        .filter(match -> match.submissionId < match.matchedSubmissionId)
+                        .forEach(all::add);
+            }
+            return all;
+        });
+        pairs.sort(RawMatch.BEST_FIRST);
+        return resolve(pairs.subList(0, Math.min(limit, pairs.size())));
+    }
+
+    private QuestionIndex indexOf(Long submissionId) {
+        if (!enabled) {
+            throw new RuntimeException("Similarity index is disabled");
+        }
+        Long questionId = questionOfSubmission.get(submissionId);
+        if (questionId == null) {
+            // Not reached by the sync yet; index it now rather than report nothing
+            CodingSubmission submission = submissionRepository.findById(submissionId)
+                    .orElseThrow(() -> new RuntimeException("Submission not found"));
+            add(submission);
+            questionId = submission.getQuestion().getId();
+        }
+        // A rebuild may have cleared the index since; answer from an empty one until the sync refills it
+        return questions.computeIfAbsent(questionId, key -> new QuestionIndex());
+    }
+
+    private int commonThreshold(QuestionIndex index) {
+        int submissions = index.fingerprints.size();
+        return submissions < commonMinSubmissions
+                ? Integer.MAX_VALUE
+                : Math.max(3, (int) Math.ceil(submissions * commonFraction));
+    }
+
+    private List<Match> resolve(List<RawMatch> matches) {
+        Set<Long> userIds = new HashSet<>();
+        matches.forEach(match -> {
+            userIds.add(match.userId);
+            userIds.add(match.matchedUserId);
+        });
+        Map<Long, String> usernames = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+        return matches.stream()
+                .map(match -> new Match(match.submissionId, usernames.get(match.userId),
+                        match.matchedSubmissionId, usernames.get(match.matchedUserId),
+                        match.shared, match.similarity))
+                .toList();
+    }
+
+    /** Throws the index away; the next sync rebuilds it from the submission table. */
+    public void requestRebuild() {
+        rebuildRequested = true;
+        scheduleSync();
+    }
+
+    public Status getStatus() {
+        return new Status(enabled, questions.size(), questionOfSubmission.size(), watermark,
+                rebuildRequested || rebuilding);
+    }
+
+    @Scheduled(fixedDelayString = "${judge.similarity.sync-interval-ms:30000}")
+    public void scheduleSync() {
+        if (enabled) {
+            syncExecutor.execute(this::sync);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+
+    private void sync() {
+        if (!enabled || !syncLock.tryLock()) {
+            return;
+        }
+        try {
+            boolean rebuild = rebuildRequested;
+            rebuildRequested = false;
+            if (rebuild) {
+                rebuilding = true;
+                questions.clear();
+                questionOfSubmission.clear();
+                watermark = 0;
+            }
+            long start = System.nanoTime();
+            int indexed = 0;
+            List<CodingSubmissionRepository.FingerprintSource> page;
+            do {
+                page = submissionRepository.findFingerprintPage(watermark, PageRequest.of(0, pageSize));
+                for (CodingSubmissionRepository.FingerprintSource row : page) {
+                    add(row.getId(), row.getQuestionId(), row.getUserId(), row.getLanguage(), row.getCode());
+                    watermark = row.getId();
+                }
+                indexed += page.size();
+            } while (page.size() == pageSize);
+            if (rebuild) {
+                log.info("Rebuilt similarity index from {} submissions in {} ms",
+                        indexed, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Similarity index sync failed at submission {}", watermark, e);
+        } finally {
+            rebuilding = false;
+            syncLock.unlock();
+        }
+    }
+
+    private record RawMatch(long submissionId, long userId, long matchedSubmissionId, long matchedUserId,
+                            int shared, double similarity) {
+
+        static final Comparator<RawMatch> BEST_FIRST = Comparator.comparingDouble(RawMatch::similarity)
+                .thenComparingInt(RawMatch::shared)
+                .reversed();
+    }
+
+    private static final class QuestionIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, long[]> fingerprints = new HashMap<>();
+        private final Map<Long, Long> users = new HashMap<>();
+        private final Map<Long, List<Long>> postings = new HashMap<>();
+
+        void add(Long id, Long userId, long[] submissionFingerprints) {
+            lock.writeLock().lock();
+            try {
+                if (fingerprints.putIfAbsent(id, submissionFingerprints) != null) {
+                    return;
+                }
+                users.put(id, userId);
+                for (long fingerprint : submissionFingerprints) {
+                    postings.computeIfAbsent(fingerprint, key -> new ArrayList<>(2)).add(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        <T> T read(Supplier<T> query) {
+            lock.readLock().lock();
+            try {
+                return query.get();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Call under the read lock
+        List<RawMatch> matches(Long id, int commonThreshold) {
+            long[] own = fingerprints.get(id);
+            if (own == null) {
+                return new ArrayList<>();
+            }
+            Long userId = users.get(id);
+            Map<Long, Integer> shared = new HashMap<>();
+            for (long fingerprint : own) {
+                List<Long> posting = postings.get(fingerprint);
+                if (posting.size() >= commonThreshold) {
+                    continue;
+                }
+                for (Long other : posting) {
+                    if (!other.equals(id) && !users.get(other).equals(userId)) {
+                        shared.merge(other, 1, Integer::sum);
+                    }
+                }
+            }
+            List<RawMatch> matches = new ArrayList<>(shared.size());
+            shared.forEach((other, count) -> {
+                int smaller = Math.min(own.length, fingerprints.get(other).length);
+                matches.add(new RawMatch(id, userId, other, users.get(other), count, (double) count / smaller));
+            });
+            return matches;
+        }
+    }
+}
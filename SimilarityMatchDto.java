@@ -0,0 +1,25 @@
+package com.mockmate.dto;
+
+import com.mockmate.service.SimilarityIndex;
+import lombok.Data;
+
+@Data
+public class SimilarityMatchDto {
+    private Long submissionId;
+    private String username;
+    private Long matchedSubmissionId;
+    private String matchedUsername;
+    private int sharedFingerprints;
+    private double similarityPercent;
+    
+    public static SimilarityMatchDto fromMatch(SimilarityIndex.Match match) {
+        SimilarityMatchDto dto = new SimilarityMatchDto();
+        dto.setSubmissionId(match.submissionId());
+        dto.setUsername(match.username());
+        dto.setMatchedSubmissionId(match.matchedSubmissionId());
+        dto.setMatchedUsername(match.matchedUsername());
+        dto.setSharedFingerprints(match.sharedFingerprints());
+        dto.setSimilarityPercent(Math.round(match.similarity() * 1000) / 10.0);
+        return dto;
+    }
+}
@@ -0,0 +1,165 @@
+package com.mockmate.service;
+
+import com.mockmate.dto.TestCaseResultDto;
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.TestCaseResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Supplier;
+
+/**
+ * Registry of Server-Sent Events subscribers per submission. Emitters are
+ * async servlet responses, so an idle subscriber costs a map entry and an open
+ * socket, not a thread. Events are sent on the judge thread that produced them.
+ */
+@Component
+@Slf4j
+public class SubmissionEvents {
+
+    private static final Set<CodingSubmission.SubmissionStatus> TERMINAL = EnumSet.of(
+            CodingSubmission.SubmissionStatus.COMPLETED,
+            CodingSubmission.SubmissionStatus.FAILED,
+            CodingSubmission.SubmissionStatus.TIMEOUT);
+
+    @Value("${judge.events.timeout-ms:600000}")
+    private long timeoutMs;
+
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a stream for the submission. The first event is a snapshot taken
+     * after registration, so no transition can fall between the snapshot and the
+     * live events; a stream for a finished submission closes right after it.
+     */
+    public SseEmitter subscribe(Long submissionId, Supplier<Optional<CodingSubmission>> snapshot) {
+        Subscription subscription = new Subscription(submissionId, new SseEmitter(timeoutMs));
+        synchronized (subscription) {
+            subscribers.compute(submissionId, (id, set) -> {
+                Set<Subscription> target = set != null ? set : new CopyOnWriteArraySet<>();
+                target.add(subscription);
+                return target;
+            });
+            subscription.emitter.onCompletion(() -> remove(subscription));
+            subscription.emitter.onTimeout(() -> remove(subscription));
+            subscription.emitter.onError(e -> remove(subscription));
+
+            Optional<CodingSubmission> current = snapshot.get();
+            if (current.isEmpty()) {
+                remove(subscription);
+                subscription.emitter.complete();
+            } else {
+                send(subscription, "status", statusPayload(current.get()));
+                if (TERMINAL.contains(current.get().getStatus())) {
+                    subscription.emitter.complete();
+                }
+            }
+        }
+        return subscription.emitter;
+    }
+
+    public static boolean isTerminal(CodingSubmission.SubmissionStatus status) {
+        return TERMINAL.contains(status);
+    }
+
+    public Set<Long> subscribedIds() {
+        return Set.copyOf(subscribers.keySet());
+    }
+
+    public void publishStatus(CodingSubmission submission) {
+        Set<Subscription> targets = subscribers.get(submission.getId());
+        if (targets == null) {
+            return;
+        }
+        Map<String, Object> payload = statusPayload(submission);
+        boolean terminal = TERMINAL.contains(submission.getStatus());
+        for (Subscription subscription : targets) {
+            synchronized (subscription) {
+                send(subscription, "status", payload);
+                if (terminal) {
+                    subscription.emitter.complete();
+                }
+            }
+        }
+        if (terminal) {
+            subscribers.remove(submission.getId());
+        }
+    }
+
+    public void publishTestCase(Long submissionId, int index, TestCaseResult result) {
+        Set<Subscription> targets = subscribers.get(submissionId);
+        if (targets == null) {
+            return;
+        }
+        TestCaseResultDto payload = TestCaseResultDto.fromTestCaseResult(index, result);
+        for (Subscription subscription : targets) {
+            synchronized (subscription) {
+                send(subscription, "test-case", payload);
+            }
+        }
+    }
+
+    // Comment frames keep idle streams open through proxies and surface dead clients
+    @Scheduled(fixedDelayString = "${judge.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscription> targets : subscribers.values()) {
+            for (Subscription subscription : targets) {
+                synchronized (subscription) {
+                    try {
+                        subscription.emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (IOException | IllegalStateException e) {
+                        remove(subscription);
+                    }
+                }
+            }
+        }
+    }
+
+    private void send(Subscription subscription, String name, Object payload) {
+        try {
+            subscription.emitter.send(SseEmitter.event().name(name).data(payload));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping event subscriber for submission {}: {}", subscription.submissionId, e.getMessage());
+            remove(subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscribers.computeIfPresent(subscription.submissionId, (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private Map<String, Object> statusPayload(CodingSubmission submission) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("submissionId", submission.getId());
+        payload.put("status", submission.getStatus());
+        payload.put("score", submission.getScore());
+        payload.put("testCasesPassed", submission.getTestCasesPassed());
+        payload.put("totalTestCases", submission.getTotalTestCases());
+        return payload;
+    }
+
+    private static final class Subscription {
+        private final Long submissionId;
+        private final SseEmitter emitter;
+
+        private Subscription(Long submissionId, SseEmitter emitter) {
+            this.submissionId = submissionId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory status of submissions that are being judged on this node. The
+ * intermediate transitions live only here (plus one narrow UPDATE when judging
+ * starts); the database is written in full once, when the verdict is final.
+ */
+@Component
+public class SubmissionStatusRegistry {
+
+    private final Map<Long, CodingSubmission.SubmissionStatus> live = new ConcurrentHashMap<>();
+
+    public void update(Long submissionId, CodingSubmission.SubmissionStatus status) {
+        live.put(submissionId, status);
+    }
+
+    public Optional<CodingSubmission.SubmissionStatus> get(Long submissionId) {
+        return Optional.ofNullable(live.get(submissionId));
+    }
+
+    public void clear(Long submissionId) {
+        live.remove(submissionId);
+    }
+
+    /**
+     * Replaces the persisted status with the live one, if any. The submission
+     * is only read afterwards, never saved, so the overlay does not leak into
+     * the database.
+     */
+    public CodingSubmission overlay(CodingSubmission submission) {
+        get(submission.getId()).ifPresent(submission::setStatus);
+        return submission;
+    }
+}
@@ -18,4 +18,7 @@ public class SubmitCodeRequest {
     
     //@NotNull
     private CodingSubmission.ProgrammingLanguage language;
+    
+    // Optional; overrides the question's evaluation policy for this submission
+    private CodingSubmission.EvaluationPolicy evaluationPolicy;
 }
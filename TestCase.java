@@ -1,7 +1,6 @@
 package com.mockmate.model;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -23,14 +22,26 @@ public class TestCase {
     @JoinColumn(name = "question_id")
     private Question question;
     
-    @NotBlank
+    // Null when the data is in the test case blob store; see inputHash
     @Lob
     private String input;
     
-    @NotBlank
     @Lob
     private String expectedOutput;
     
+    // SHA-256 and byte size of data kept in the blob store instead of inline
+    @Column(name = "input_hash", length = 64)
+    private String inputHash;
+    
+    @Column(name = "input_size")
+    private Long inputSize;
+    
+    @Column(name = "expected_output_hash", length = 64)
+    private String expectedOutputHash;
+    
+    @Column(name = "expected_output_size")
+    private Long expectedOutputSize;
+    
     private boolean isHidden = false; // Hidden test cases for evaluation
     
     private Integer points = 1;
@@ -0,0 +1,181 @@
+package com.mockmate.service;
+
+import com.mockmate.model.TestCase;
+import com.mockmate.repository.TestCaseRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed files for test case data too large to keep inline. A test
+ * case whose input or expected output exceeds {@code judge.blob-store.inline-max-bytes}
+ * keeps only the SHA-256 and size of it in its row; the bytes live under
+ * {@code judge.blob-store.dir} and are memory-mapped on first use, so judging
+ * streams them to the solution and the comparator without loading them onto
+ * the heap. Identical data is stored once.
+ *
+ * <p>In distributed mode every worker node must see the same directory (a
+ * shared volume), or be provisioned with the same files.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TestCaseBlobStore {
+
+    private final TestCaseRepository testCaseRepository;
+
+    @Value("${judge.blob-store.dir:${java.io.tmpdir}/mockmate-testcases}")
+    private String storeDir;
+
+    @Value("${judge.blob-store.inline-max-bytes:65536}")
+    private int inlineMaxBytes;
+
+    @Value("${judge.output-limit-bytes:1048576}")
+    private int outputLimitBytes;
+
+    private Path root;
+
+    // Mappings are shared; readers work on duplicates so their positions never interfere
+    private final Map<String, ByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Files.createDirectories(Paths.get(storeDir));
+        log.info("Test case blob store at {}, inline limit {} bytes", root, inlineMaxBytes);
+    }
+
+    /**
+     * Moves input and expected output above the inline limit into the store,
+     * leaving their hash and size on the test case. Call before saving it.
+     *
+     * @throws IllegalArgumentException if the expected output is larger than a
+     *         solution may print ({@code judge.output-limit-bytes}), so no
+     *         solution could ever pass the case
+     */
+    public void externalize(TestCase testCase) {
+        String expectedOutput = testCase.getExpectedOutput();
+        if (expectedOutput != null && expectedOutput.length() > outputLimitBytes / 3) {
+            int size = expectedOutput.getBytes(StandardCharsets.UTF_8).length;
+            if (size > outputLimitBytes) {
+                throw new IllegalArgumentException("Expected output of " + size
+                        + " bytes is larger than the judge output limit of " + outputLimitBytes + " bytes");
+            }
+        }
+        byte[] input = largeBytes(testCase.getInput());
+        if (input != null) {
+            testCase.setInputHash(put(input));
+            testCase.setInputSize((long) input.length);
+            testCase.setInput(null);
+        }
+        byte[] expected = largeBytes(testCase.getExpectedOutput());
+        if (expected != null) {
+            testCase.setExpectedOutputHash(put(expected));
+            testCase.setExpectedOutputSize((long) expected.length);
+            testCase.setExpectedOutput(null);
+        }
+    }
+
+    // UTF-8 needs at most three bytes per char, so short text is never encoded just to measure it
+    private byte[] largeBytes(String text) {
+        if (text == null || text.length() <= inlineMaxBytes / 3) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return bytes.length > inlineMaxBytes ? bytes : null;
+    }
+
+    TestCaseData input(TestCase testCase) {
+        return testCase.getInputHash() == null
+                ? TestCaseData.inline(testCase.getInput())
+                : open(testCase.getInputHash(), testCase.getInputSize());
+    }
+
+    TestCaseData expectedOutput(TestCase testCase) {
+        return testCase.getExpectedOutputHash() == null
+                ? TestCaseData.inline(testCase.getExpectedOutput())
+                : open(testCase.getExpectedOutputHash(), testCase.getExpectedOutputSize());
+    }
+
+    private TestCaseData open(String hash, Long size) {
+        ByteBuffer buffer = mappings.computeIfAbsent(hash, this::map);
+        if (size != null && buffer.capacity() != size) {
+            mappings.remove(hash);
+            throw new IllegalStateException("Test case data " + hash + " in the blob store has "
+                    + buffer.capacity() + " bytes, expected " + size);
+        }
+        return TestCaseData.mapped(buffer);
+    }
+
+    private ByteBuffer map(String hash) {
+        Path file = pathOf(hash);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Test case data " + hash + " is missing from the blob store at " + root, e);
+        }
+    }
+
+    private String put(byte[] bytes) {
+        String hash = HexFormat.of().formatHex(JudgeHashing.sha256().digest(bytes));
+        Path file = pathOf(hash);
+        try {
+            if (Files.exists(file) && Files.size(file) == bytes.length) {
+                return hash;
+            }
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), hash, ".tmp");
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store test case data: " + e.getMessage(), e);
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /** Moves large data out of test cases written before the store existed. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInline() {
+        List<Long> ids = testCaseRepository.findIdsWithInlineDataLongerThan(inlineMaxBytes);
+        for (Long id : ids) {
+            testCaseRepository.findById(id).ifPresent(testCase -> {
+                try {
+                    externalize(testCase);
+                    testCaseRepository.save(testCase);
+                } catch (IllegalArgumentException e) {
+                    // Existing data is left as it is; the case just cannot be passed until it is fixed
+                    log.warn("Test case {} cannot be passed: {}", id, e.getMessage());
+                }
+            });
+        }
+        if (!ids.isEmpty()) {
+            log.info("Moved data of {} test cases into the blob store", ids.size());
+        }
+    }
+}
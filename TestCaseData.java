@@ -0,0 +1,113 @@
+package com.mockmate.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The input or expected output of a test case: either text held inline in the
+ * database row, or a file in the {@link TestCaseBlobStore} mapped into memory.
+ * Mapped data is only ever read through streams, so it costs no heap beyond a
+ * small copy buffer however large it is.
+ */
+final class TestCaseData {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final String text;
+    private final ByteBuffer mapped;
+
+    private TestCaseData(String text, ByteBuffer mapped) {
+        this.text = text;
+        this.mapped = mapped;
+    }
+
+    static TestCaseData inline(String text) {
+        return new TestCaseData(text == null ? "" : text, null);
+    }
+
+    static TestCaseData mapped(ByteBuffer buffer) {
+        return new TestCaseData(null, buffer);
+    }
+
+    boolean isInline() {
+        return mapped == null;
+    }
+
+    /** The inline text; mapped data has none. */
+    String text() {
+        if (mapped != null) {
+            throw new IllegalStateException("Stored test case data is not held as text");
+        }
+        return text;
+    }
+
+    InputStream openStream() {
+        if (mapped == null) {
+            return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return new BufferInputStream(mapped.duplicate());
+    }
+
+    Reader openReader() {
+        if (mapped == null) {
+            return new StringReader(text);
+        }
+        return new InputStreamReader(openStream(), StandardCharsets.UTF_8);
+    }
+
+    /** Writes the data to a process's stdin; blank inline input writes nothing, as before. */
+    void writeTo(OutputStream out) throws IOException {
+        if (mapped == null) {
+            if (!text.isBlank()) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            return;
+        }
+        ByteBuffer source = mapped.duplicate();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int length = Math.min(len, buffer.remaining());
+            buffer.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
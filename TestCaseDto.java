@@ -8,6 +8,8 @@ public class TestCaseDto {
     private Long id;
     private String input;
     private String expectedOutput;
+    private Long inputSize; // set when the input is in the blob store and not returned
+    private Long expectedOutputSize;
     private boolean isHidden;
     private Integer points;
     private String description;
@@ -17,6 +19,8 @@ public class TestCaseDto {
         dto.setId(testCase.getId());
         dto.setInput(testCase.getInput());
         dto.setExpectedOutput(testCase.getExpectedOutput());
+        dto.setInputSize(testCase.getInputSize());
+        dto.setExpectedOutputSize(testCase.getExpectedOutputSize());
         dto.setHidden(testCase.isHidden());
         dto.setPoints(testCase.getPoints());
         dto.setDescription(testCase.getDescription());
@@ -0,0 +1,118 @@
+package com.mockmate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+/**
+ * Shared, core-bounded pool that runs the test cases of a submission in parallel.
+ * Each call is capped at a per-submission concurrency so one large question
+ * cannot occupy every thread while other submissions wait.
+ */
+@Component
+@Slf4j
+public class TestCaseExecutor {
+
+    @Value("${judge.test-case-threads:0}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "judge-testcase-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Test case executor started with {} threads", threads);
+    }
+
+    /**
+     * Runs the tasks with at most {@code maxConcurrency} in flight and returns
+     * their results in the same order as the input list.
+     */
+    public <T> List<T> runAll(List<Callable<T>> tasks, int maxConcurrency) throws InterruptedException {
+        return runAll(tasks, maxConcurrency, (index, result) -> false);
+    }
+
+    /**
+     * Like {@link #runAll(List, int)}, but as soon as {@code stopOn} matches a
+     * task's index and result every later task is cancelled (in-flight ones are
+     * interrupted) or never started. Tasks before the stopping one still run to
+     * completion, so the returned list is always an in-order prefix that ends
+     * with the first stopping result; skipped positions are {@code null}.
+     */
+    public <T> List<T> runAll(List<Callable<T>> tasks, int maxConcurrency, BiPredicate<Integer, T> stopOn)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        AtomicInteger stopAt = new AtomicInteger(Integer.MAX_VALUE);
+        try {
+            for (int i = 0; i < tasks.size() && i <= stopAt.get(); i++) {
+                permits.acquire();
+                if (i > stopAt.get()) {
+                    permits.release();
+                    break;
+                }
+                int index = i;
+                Callable<T> task = tasks.get(i);
+                Future<T> future = executor.submit(() -> {
+                    try {
+                        T result = task.call();
+                        if (index < stopAt.get() && stopOn.test(index, result)) {
+                            stopAt.accumulateAndGet(index, Math::min);
+                            cancelAfter(futures, index);
+                        }
+                        return result;
+                    } finally {
+                        permits.release();
+                    }
+                });
+                synchronized (futures) {
+                    futures.add(future);
+                }
+            }
+
+            List<T> results = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                results.add(i <= stopAt.get() && i < futures.size() ? futures.get(i).get() : null);
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Test case execution failed", e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private <T> void cancelAfter(List<Future<T>> futures, int index) {
+        synchronized (futures) {
+            for (int i = index + 1; i < futures.size(); i++) {
+                futures.get(i).cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
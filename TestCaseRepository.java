@@ -2,6 +2,8 @@ package com.mockmate.repository;
 
 import com.mockmate.model.TestCase;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,10 @@ import java.util.List;
 @Repository
 public interface TestCaseRepository extends JpaRepository<TestCase, Long> {
     List<TestCase> findByQuestionId(Long questionId);
+
+    List<TestCase> findByQuestionIdOrderByIdAsc(Long questionId);
+
+    @Query("SELECT t.id FROM TestCase t WHERE (t.inputHash IS NULL AND length(t.input) > :limit) " +
+           "OR (t.expectedOutputHash IS NULL AND length(t.expectedOutput) > :limit)")
+    List<Long> findIdsWithInlineDataLongerThan(@Param("limit") int limit);
 }
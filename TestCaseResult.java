@@ -0,0 +1,27 @@
+package com.mockmate.model;
+
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestCaseResult {
+
+    private boolean passed;
+
+    private boolean hidden;
+
+    @Size(max = 100)
+    private String verdict;
+
+    private Long wallTimeMs;
+
+    private Long cpuTimeMs;
+
+    private Long memoryKb;
+}
@@ -0,0 +1,27 @@
+package com.mockmate.dto;
+
+import com.mockmate.model.TestCaseResult;
+import lombok.Data;
+
+@Data
+public class TestCaseResultDto {
+    private int index;
+    private boolean passed;
+    private boolean hidden;
+    private String verdict;
+    private Long wallTimeMs;
+    private Long cpuTimeMs;
+    private Long memoryKb;
+
+    public static TestCaseResultDto fromTestCaseResult(int index, TestCaseResult result) {
+        TestCaseResultDto dto = new TestCaseResultDto();
+        dto.setIndex(index);
+        dto.setPassed(result.isPassed());
+        dto.setHidden(result.isHidden());
+        dto.setVerdict(result.getVerdict());
+        dto.setWallTimeMs(result.getWallTimeMs());
+        dto.setCpuTimeMs(result.getCpuTimeMs());
+        dto.setMemoryKb(result.getMemoryKb());
+        return dto;
+    }
+}
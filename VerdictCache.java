@@ -0,0 +1,175 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.Question;
+import com.mockmate.model.TestCase;
+import com.mockmate.model.TestCaseResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of finished verdicts keyed by (question, language, normalized code
+ * hash, test-case-set version). The version is a hash of the question's test
+ * cases, so editing any test case makes older entries unreachable on its own.
+ * <p>
+ * Normalization only turns CRLF line endings into LF. Every judge language
+ * reads CRLF as a plain newline, even inside string literals, so the same
+ * program pasted from Windows and from Unix shares an entry. Any other
+ * whitespace may sit inside a literal (a Python triple-quoted string, a JS
+ * template, a Java text block, a C++ raw string) and is left alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class VerdictCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${judge.verdict-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${judge.verdict-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private Map<String, Verdict> entries;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verdict> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        hits = Counter.builder("judge.verdict.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("judge.verdict.cache").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("judge.verdict.cache.size", this, cache -> cache.size());
+    }
+
+    public String key(Long questionId, CodingSubmission.ProgrammingLanguage language, String code,
+                      List<TestCase> testCases, CodingSubmission.EvaluationPolicy policy,
+                      Question.ComparisonMode comparisonMode, double tolerance) {
+        return questionId + ":" + language + ":" + JudgeHashing.sha256Hex(normalize(code))
+                + ":" + testCaseVersion(testCases) + ":" + policy + ":" + comparisonMode + ":" + tolerance;
+    }
+
+    public Verdict get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Verdict verdict;
+        synchronized (this) {
+            verdict = entries.get(key);
+        }
+        (verdict != null ? hits : misses).increment();
+        return verdict;
+    }
+
+    public void put(String key, Verdict verdict) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(key, verdict);
+        }
+    }
+
+    public synchronized void invalidateQuestion(Long questionId) {
+        String prefix = questionId + ":";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    static String normalize(String code) {
+        return code.replace("\r\n", "\n");
+    }
+
+    static String testCaseVersion(List<TestCase> testCases) {
+        MessageDigest digest = JudgeHashing.sha256();
+        for (TestCase testCase : testCases) {
+            digest.update(String.valueOf(testCase.getId()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // Stored data is identified by its hash, so it is never read here
+            digest.update(String.valueOf(testCase.getInputHash() != null
+                    ? testCase.getInputHash() : testCase.getInput()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(testCase.getExpectedOutputHash() != null
+                    ? testCase.getExpectedOutputHash() : testCase.getExpectedOutput()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    /**
+     * The parts of a finished submission that are a pure function of the cache key.
+     */
+    public static class Verdict {
+        private final CodingSubmission.SubmissionStatus status;
+        private final double score;
+        private final int testCasesPassed;
+        private final int totalTestCases;
+        private final String feedback;
+        private final String compilationError;
+        private final String runtimeError;
+        private final Integer executionTimeMs;
+        private final Integer cpuTimeMs;
+        private final Integer memoryUsageKb;
+        private final List<TestCaseResult> testCaseResults;
+
+        public Verdict(CodingSubmission submission) {
+            this.status = submission.getStatus();
+            this.score = submission.getScore() == null ? 0.0 : submission.getScore();
+            this.testCasesPassed = submission.getTestCasesPassed() == null ? 0 : submission.getTestCasesPassed();
+            this.totalTestCases = submission.getTotalTestCases() == null ? 0 : submission.getTotalTestCases();
+            this.feedback = submission.getFeedback();
+            this.compilationError = submission.getCompilationError();
+            this.runtimeError = submission.getRuntimeError();
+            this.executionTimeMs = submission.getExecutionTimeMs();
+            this.cpuTimeMs = submission.getCpuTimeMs();
+            this.memoryUsageKb = submission.getMemoryUsageKb();
+            this.testCaseResults = copyOf(submission.getTestCaseResults());
+        }
+
+        public void applyTo(CodingSubmission submission) {
+            submission.setStatus(status);
+            submission.setScore(score);
+            submission.setTestCasesPassed(testCasesPassed);
+            submission.setTotalTestCases(totalTestCases);
+            submission.setFeedback(feedback);
+            submission.setCompilationError(compilationError);
+            submission.setRuntimeError(runtimeError);
+            submission.setExecutionTimeMs(executionTimeMs);
+            submission.setCpuTimeMs(cpuTimeMs);
+            submission.setMemoryUsageKb(memoryUsageKb);
+            submission.setTestCaseResults(copyOf(testCaseResults));
+        }
+
+        // Embeddables are mutable and owned by one submission, so each side gets its own copies
+        private static List<TestCaseResult> copyOf(List<TestCaseResult> results) {
+            List<TestCaseResult> copy = new ArrayList<>();
+            if (results != null) {
+                for (TestCaseResult r : results) {
+                    copy.add(new TestCaseResult(r.isPassed(), r.isHidden(), r.getVerdict(),
+                            r.getWallTimeMs(), r.getCpuTimeMs(), r.getMemoryKb()));
+                }
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived judge harnesses for the interpreted and JVM languages. A harness
+ * reads a nonce line, then repeatedly reads a request frame
+ * {@code RUN\t<artifactDir>\t<stdinLength>\t<outputLimit>\n<stdin bytes>}, runs
+ * the solution found in the artifact directory with that stdin and answers with
+ * {@code <nonce> <OK|ERROR> <stdoutLength> <stderrLength>\n<stdout><stderr>}.
+ * <p>
+ * The nonce keeps a solution from forging a frame by writing to the protocol
+ * pipe directly, so it is kept out of what the solution can reach from its own
+ * runtime. Python runs each solution in a forked child that drops the nonce and
+ * the protocol pipes first, and reports the child's CPU time and peak RSS as two
+ * extra header fields. Java keeps it in locals of the harness (nothing of the
+ * protocol in static fields, and no attach), and JavaScript in closures, with the Node
+ * permission model denying the inspector, worker threads and child processes.
+ * None of this stops code that reads raw process memory, so a harness that has
+ * run one owner's code is never given another owner's (see
+ * {@link LanguageWorkerPool.Scope}).
+ * <p>
+ * Captured output is counted as it is written. The first write that takes
+ * stdout or stderr past {@code outputLimit} bytes answers
+ * {@code <nonce> LIMIT 0 0} and kills the run on the spot (the whole harness,
+ * or for Python the child), so a solution printing in a loop never holds more
+ * than the limit in memory and cannot catch its way past the abort.
+ * <p>
+ * The Java harness also serves {@code judge.in-jvm-java}. A
+ * {@code COMPILE\t<source>\t0\t<outputLimit>\n} frame compiles with the
+ * compiler of the already warm JVM and answers with the diagnostics as stdout.
+ * Started with a CPU time and an allocation budget, it runs each solution on a
+ * thread it watches and ends itself with {@code <nonce> TIMEOUT 0 0} or
+ * {@code <nonce> MEMORY 0 0} once the run goes over either.
+ */
+final class WorkerHarness {
+
+    static final String PYTHON = """
+            import atexit
+            import io
+            import os
+            import runpy
+            import selectors
+            import signal
+            import sys
+            import threading
+            import traceback
+
+            proto_in = os.fdopen(os.dup(0), 'rb')
+            proto_out = os.fdopen(os.dup(1), 'wb')
+            devnull = os.open(os.devnull, os.O_RDWR)
+            os.dup2(devnull, 0)
+            os.dup2(devnull, 1)
+            nonce = proto_in.readline().strip().decode()
+
+
+            def child(directory, data, out_w, err_w):
+                # Drop everything of the protocol before any solution code runs
+                global nonce
+                nonce = None
+                proto_in.close()
+                proto_out.close()
+                os.dup2(out_w, 1)
+                os.dup2(err_w, 2)
+                os.closerange(3, os.sysconf('SC_OPEN_MAX'))
+                out = open(1, 'w', encoding='utf-8', closefd=False)
+                err = open(2, 'w', encoding='utf-8', errors='backslashreplace', closefd=False)
+                sys.stdin = io.TextIOWrapper(io.BytesIO(data), encoding='utf-8')
+                sys.stdout, sys.stderr = out, err
+                code = 0
+                try:
+                    runpy.run_path(os.path.join(directory, 'solution.py'), run_name='__main__')
+                except SystemExit as e:
+                    if isinstance(e.code, int):
+                        code = e.code
+                    elif e.code is not None:
+                        print(e.code, file=err)
+                        code = 1
+                except BaseException:
+                    traceback.print_exc(file=err)
+                    code = 1
+                # What a normal interpreter exit would still do
+                try:
+                    for thread in threading.enumerate():
+                        if thread is not threading.main_thread() and not thread.daemon:
+                            thread.join()
+                    atexit._run_exitfuncs()
+                    out.flush()
+                    err.flush()
+                except BaseException:
+                    code = code or 1
+                os._exit(code)
+
+
+            def collect(pid, out_r, err_r, limit):
+                data = {out_r: bytearray(), err_r: bytearray()}
+                selector = selectors.DefaultSelector()
+                for fd in data:
+                    selector.register(fd, selectors.EVENT_READ)
+                exceeded = False
+                remaining = len(data)
+                while remaining and not exceeded:
+                    for key, _ in selector.select():
+                        chunk = os.read(key.fd, 65536)
+                        if not chunk:
+                            selector.unregister(key.fd)
+                            remaining -= 1
+                        elif len(data[key.fd]) + len(chunk) > limit:
+                            exceeded = True
+                            break
+                        else:
+                            data[key.fd] += chunk
+                selector.close()
+                if exceeded:
+                    os.kill(pid, signal.SIGKILL)
+                _, status, usage = os.wait4(pid, 0)
+                os.close(out_r)
+                os.close(err_r)
+                return exceeded, status, usage, bytes(data[out_r]), bytes(data[err_r])
+
+
+            while True:
+                header = proto_in.readline()
+                if not header:
+                    break
+                _, directory, length, limit = header.decode().rstrip('\\n').split('\\t')
+                data = proto_in.read(int(length))
+                out_r, out_w = os.pipe()
+                err_r, err_w = os.pipe()
+                pid = os.fork()
+                if pid == 0:
+                    child(directory, data, out_w, err_w)
+                os.close(out_w)
+                os.close(err_w)
+                exceeded, status, usage, o, e = collect(pid, out_r, err_r, int(limit))
+                if exceeded:
+                    proto_out.write(('%s LIMIT 0 0\\n' % nonce).encode())
+                else:
+                    ok = 'OK' if os.waitstatus_to_exitcode(status) == 0 else 'ERROR'
+                    cpu_ms = int((usage.ru_utime + usage.ru_stime) * 1000)
+                    proto_out.write(('%s %s %d %d %d %d\\n'
+                                     % (nonce, ok, len(o), len(e), cpu_ms, usage.ru_maxrss)).encode())
+                    proto_out.write(o)
+                    proto_out.write(e)
+                proto_out.flush()
+            """;
+
+    static final String JAVASCRIPT = """
+            const fs = require('fs');
+            const path = require('path');
+            const Module = require('module');
+            const { Readable } = require('stream');
+
+            const protoBuf = Buffer.alloc(65536);
+            let pending = Buffer.alloc(0);
+
+            function fill() {
+              const n = fs.readSync(0, protoBuf, 0, protoBuf.length, null);
+              if (n === 0) return false;
+              pending = Buffer.concat([pending, protoBuf.subarray(0, n)]);
+              return true;
+            }
+
+            function readLine() {
+              for (;;) {
+                const i = pending.indexOf(10);
+                if (i >= 0) {
+                  const line = pending.subarray(0, i).toString('utf8');
+                  pending = pending.subarray(i + 1);
+                  return line;
+                }
+                if (!fill()) return null;
+              }
+            }
+
+            function readBytes(n) {
+              while (pending.length < n) {
+                if (!fill()) throw new Error('truncated frame');
+              }
+              const data = pending.subarray(0, n);
+              pending = pending.subarray(n);
+              return Buffer.from(data);
+            }
+
+            const realReadFileSync = fs.readFileSync;
+            const realStdoutWrite = process.stdout.write.bind(process.stdout);
+            const realKill = process.kill.bind(process);
+            const nonce = readLine();
+            let input = Buffer.alloc(0);
+            let limit = 0;
+            const out = { chunks: [], size: 0 };
+            const err = { chunks: [], size: 0 };
+
+            function append(stream, chunk) {
+              if (stream.size + chunk.length > limit) {
+                fs.writeSync(1, `${nonce} LIMIT 0 0\\n`);
+                realKill(process.pid, 'SIGKILL');
+              }
+              stream.chunks.push(chunk);
+              stream.size += chunk.length;
+            }
+
+            fs.readFileSync = function (file, options) {
+              if (file === 0 || file === '/dev/stdin') {
+                const encoding = typeof options === 'string' ? options : options && options.encoding;
+                return encoding ? input.toString(encoding) : Buffer.from(input);
+              }
+              return realReadFileSync.apply(fs, arguments);
+            };
+            const capture = (stream) => function (chunk, encoding, callback) {
+              append(stream, Buffer.isBuffer(chunk) ? chunk : Buffer.from(String(chunk), typeof encoding === 'string' ? encoding : 'utf8'));
+              const cb = typeof encoding === 'function' ? encoding : callback;
+              if (cb) cb();
+              return true;
+            };
+            process.stdout.write = capture(out);
+            process.stderr.write = capture(err);
+
+            function idle() {
+              return process.getActiveResourcesInfo().every((r) => r === 'Immediate' || r === 'TTYWrap' || r === 'PipeWrap' || r === 'FSReqCallback');
+            }
+
+            function respond(status) {
+              const o = Buffer.concat(out.chunks);
+              const e = Buffer.concat(err.chunks);
+              fs.writeSync(1, `${nonce} ${status} ${o.length} ${e.length}\\n`);
+              if (o.length) fs.writeSync(1, o);
+              if (e.length) fs.writeSync(1, e);
+            }
+
+            let status = 'OK';
+            process.on('uncaughtException', (e) => {
+              append(err, Buffer.from(String(e && e.stack || e) + '\\n'));
+              status = 'ERROR';
+            });
+
+            function next() {
+              const header = readLine();
+              if (header === null) process.exit(0);
+              const [, directory, length, outputLimit] = header.split('\\t');
+              input = readBytes(Number(length));
+              limit = Number(outputLimit);
+              out.chunks = [];
+              out.size = 0;
+              err.chunks = [];
+              err.size = 0;
+              status = 'OK';
+              process.exitCode = undefined;
+              Object.defineProperty(process, 'stdin', { value: Readable.from([input]), configurable: true, writable: true });
+              const file = path.join(directory, 'solution.js');
+              try {
+                Module._load(file, null, true);
+              } catch (e) {
+                append(err, Buffer.from(String(e && e.stack || e) + '\\n'));
+                status = 'ERROR';
+              }
+              delete Module._cache[file];
+              const wait = () => {
+                if (!idle()) return setImmediate(wait);
+                if (process.exitCode) status = 'ERROR';
+                respond(status);
+                setImmediate(next);
+              };
+              setImmediate(wait);
+            }
+
+            next();
+            """;
+
+    static final String JAVA = """
+            import java.io.BufferedInputStream;
+            import java.io.BufferedOutputStream;
+            import java.io.ByteArrayInputStream;
+            import java.io.ByteArrayOutputStream;
+            import java.io.FileDescriptor;
+            import java.io.FileInputStream;
+            import java.io.FileOutputStream;
+            import java.io.IOException;
+            import java.io.InputStream;
+            import java.io.OutputStream;
+            import java.io.PrintStream;
+            import java.io.StringWriter;
+            import java.io.Writer;
+            import java.lang.management.ManagementFactory;
+            import java.lang.reflect.InvocationTargetException;
+            import java.net.URL;
+            import java.net.URLClassLoader;
+            import java.nio.charset.StandardCharsets;
+            import java.nio.file.Path;
+            import java.nio.file.Paths;
+            import java.util.HashMap;
+            import java.util.List;
+            import java.util.Map;
+            import javax.tools.JavaCompiler;
+            import javax.tools.StandardJavaFileManager;
+            import javax.tools.ToolProvider;
+
+            public class JudgeHarness {
+
+                private static final com.sun.management.ThreadMXBean THREADS =
+                        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                private static final com.sun.management.OperatingSystemMXBean OS =
+                        (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+                // Everything of the protocol stays in locals: a static field could be read by reflection
+                public static void main(String[] args) throws Exception {
+                    // judge.in-jvm-java: CPU time and allocation budget of one run, 0 for none
+                    long cpuLimitNanos = args.length > 0 ? Long.parseLong(args[0]) * 1_000_000 : 0;
+                    long allocationLimit = args.length > 1 ? Long.parseLong(args[1]) : 0;
+                    InputStream protoIn = new BufferedInputStream(new FileInputStream(FileDescriptor.in));
+                    OutputStream protoOut = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+                    String nonce = readLine(protoIn);
+                    Runnable overLimit = () -> abort(protoOut, nonce, "LIMIT");
+                    String header;
+                    while ((header = readLine(protoIn)) != null) {
+                        String[] parts = header.split("\\t");
+                        byte[] input = protoIn.readNBytes(Integer.parseInt(parts[2]));
+                        int limit = Integer.parseInt(parts[3]);
+                        if (parts[0].equals("COMPILE")) {
+                            StringWriter diagnostics = new StringWriter();
+                            String status = compile(Paths.get(parts[1]), diagnostics) ? "OK" : "ERROR";
+                            byte[] text = diagnostics.toString().getBytes(StandardCharsets.UTF_8);
+                            int length = Math.min(text.length, limit);
+                            synchronized (protoOut) {
+                                protoOut.write((nonce + " " + status + " " + length + " 0\\n")
+                                        .getBytes(StandardCharsets.UTF_8));
+                                protoOut.write(text, 0, length);
+                                protoOut.flush();
+                            }
+                            continue;
+                        }
+                        Capture out = new Capture(limit, overLimit);
+                        Capture err = new Capture(limit, overLimit);
+                        System.setIn(new ByteArrayInputStream(input));
+                        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+                        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+                        String[] status = {"OK"};
+                        URL[] classpath = {Paths.get(parts[1]).toUri().toURL()};
+                        Thread solution = new Thread(() -> {
+                            try (URLClassLoader loader = new URLClassLoader(classpath, ClassLoader.getPlatformClassLoader())) {
+                                Class<?> main = Class.forName("Solution", true, loader);
+                                main.getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+                            } catch (InvocationTargetException e) {
+                                e.getCause().printStackTrace();
+                                status[0] = "ERROR";
+                            } catch (Throwable t) {
+                                t.printStackTrace();
+                                status[0] = "ERROR";
+                            }
+                        }, "main");
+                        // A solution cannot be stopped safely, so going over a budget ends the harness
+                        Map<Long, Long> allocatedBefore = allocatedBytes();
+                        long cpuBefore = OS.getProcessCpuTime();
+                        solution.start();
+                        while (solution.isAlive()) {
+                            solution.join(10);
+                            if (cpuLimitNanos > 0 && OS.getProcessCpuTime() - cpuBefore > cpuLimitNanos) {
+                                abort(protoOut, nonce, "TIMEOUT");
+                            }
+                            if (allocationLimit > 0 && allocatedSince(allocatedBefore) > allocationLimit) {
+                                abort(protoOut, nonce, "MEMORY");
+                            }
+                        }
+                        System.out.flush();
+                        System.err.flush();
+                        synchronized (protoOut) {
+                            protoOut.write((nonce + " " + status[0] + " " + out.size() + " " + err.size() + "\\n")
+                                    .getBytes(StandardCharsets.UTF_8));
+                            out.writeTo(protoOut);
+                            err.writeTo(protoOut);
+                            protoOut.flush();
+                        }
+                    }
+                }
+
+                // javax.tools in this warm JVM instead of a javac process; compiling runs no solution code
+                private static boolean compile(Path source, Writer diagnostics) throws IOException {
+                    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+                    String dir = source.getParent().toString();
+                    try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+                        return compiler.getTask(diagnostics, files, null,
+                                List.of("-encoding", "UTF-8", "-proc:none", "-classpath", dir, "-d", dir),
+                                null, files.getJavaFileObjects(source)).call();
+                    }
+                }
+
+                private static Map<Long, Long> allocatedBytes() {
+                    long[] ids = THREADS.getAllThreadIds();
+                    long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+                    Map<Long, Long> allocated = new HashMap<>();
+                    for (int i = 0; i < ids.length; i++) {
+                        allocated.put(ids[i], bytes[i]);
+                    }
+                    return allocated;
+                }
+
+                // Bytes allocated by the live threads other than this one since the snapshot
+                private static long allocatedSince(Map<Long, Long> before) {
+                    long self = Thread.currentThread().getId();
+                    long[] ids = THREADS.getAllThreadIds();
+                    long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+                    long total = 0;
+                    for (int i = 0; i < ids.length; i++) {
+                        if (ids[i] != self && bytes[i] > 0) {
+                            total += bytes[i] - before.getOrDefault(ids[i], 0L);
+                        }
+                    }
+                    return total;
+                }
+
+                // halt() rather than exit(): shutdown hooks are user code too
+                private static void abort(OutputStream protoOut, String nonce, String verdict) {
+                    synchronized (protoOut) {
+                        try {
+                            protoOut.write((nonce + " " + verdict + " 0 0\\n").getBytes(StandardCharsets.UTF_8));
+                            protoOut.flush();
+                        } catch (IOException ignored) {
+                        }
+                        Runtime.getRuntime().halt(0);
+                    }
+                }
+
+                private static final class Capture extends ByteArrayOutputStream {
+                    private final int limit;
+                    private final Runnable overLimit;
+
+                    Capture(int limit, Runnable overLimit) {
+                        this.limit = limit;
+                        this.overLimit = overLimit;
+                    }
+
+                    @Override
+                    public synchronized void write(int b) {
+                        if (count + 1 > limit) {
+                            overLimit.run();
+                        }
+                        super.write(b);
+                    }
+
+                    @Override
+                    public synchronized void write(byte[] b, int off, int len) {
+                        if (count + len > limit) {
+                            overLimit.run();
+                        }
+                        super.write(b, off, len);
+                    }
+                }
+
+                private static String readLine(InputStream in) throws IOException {
+                    ByteArrayOutputStream line = new ByteArrayOutputStream();
+                    int b;
+                    while ((b = in.read()) != -1 && b != '\\n') {
+                        line.write(b);
+                    }
+                    return b == -1 && line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+                }
+            }
+            """;
+
+    private WorkerHarness() {
+    }
+
+    static void install(Path dir) throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("harness.py"), PYTHON, StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("harness.js"), JAVASCRIPT, StandardCharsets.UTF_8);
+        Path javaSource = Files.writeString(dir.resolve("JudgeHarness.java"), JAVA, StandardCharsets.UTF_8);
+
+        Process javac = new ProcessBuilder("javac", "-d", dir.toString(), javaSource.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!javac.waitFor(60, TimeUnit.SECONDS) || javac.exitValue() != 0) {
+            javac.destroyForcibly();
+            throw new IOException("Could not compile the Java judge harness");
+        }
+    }
+
+    static boolean supports(CodingSubmission.ProgrammingLanguage language) {
+        return language != CodingSubmission.ProgrammingLanguage.CPP;
+    }
+
+    /** The harness command line; {@code args} go to the harness itself, only the Java one reads any. */
+    static List<String> command(CodingSubmission.ProgrammingLanguage language, Path dir, List<String> args) {
+        List<String> command = new ArrayList<>(switch (language) {
+            // No attach: another process of the solution's could otherwise load an agent into the harness
+            case JAVA -> List.of("java", "-Xmx256m", "-XX:+UseSerialGC", "-XX:TieredStopAtLevel=1",
+                    "-XX:+DisableAttachMechanism", "-cp", dir.toString(), "JudgeHarness");
+            case PYTHON -> List.of("python", "-I", dir.resolve("harness.py").toString());
+            // The permission model denies the inspector, worker threads and child processes (Node 20.11+)
+            case JAVASCRIPT -> List.of("node", "--experimental-permission", "--allow-fs-read=*",
+                    "--allow-fs-write=*", "--disable-warning=ExperimentalWarning",
+                    dir.resolve("harness.js").toString());
+            case CPP -> throw new IllegalArgumentException("No harness for native code");
+        });
+        command.addAll(args);
+        return command;
+    }
+}
@@ -0,0 +1,221 @@
+package com.mockmate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Fixed pool of scratch directories that test runs use as their working
+ * directory. The directories live under {@code judge.workspace.dir}, which is
+ * meant to be a tmpfs mount such as {@code /dev/shm}, and are emptied rather
+ * than recreated between runs.
+ * <p>
+ * Several backends on one host may share the root, so each instance works in
+ * its own {@code node-<pid>} subdirectory and holds an OS file lock on
+ * {@code node-<pid>.lock} for as long as it lives. At startup only
+ * subdirectories whose lock can be taken, meaning their owner is gone, are
+ * swept; the kernel drops the lock of a crashed process, so its leftovers are
+ * reclaimed by the next instance to start.
+ */
+@Component
+@Slf4j
+public class WorkspaceManager {
+
+    private static final String POOLED_PREFIX = "ws-";
+    private static final String OVERFLOW_PREFIX = "ws-overflow-";
+    private static final String HELD_PREFIX = "ws-held-";
+    private static final String INSTANCE_PREFIX = "node-";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    @Value("${judge.workspace.dir:${java.io.tmpdir}/mockmate-workspaces}")
+    private String workspaceDir;
+
+    @Value("${judge.workspace.pool-size:16}")
+    private int poolSize;
+
+    private Path sharedRoot;
+    private Path root;
+    private FileChannel lockChannel;
+
+    private final BlockingQueue<Path> idle = new LinkedBlockingQueue<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        sharedRoot = createRoot();
+        sweepOrphans();
+        String instance = INSTANCE_PREFIX + ProcessHandle.current().pid();
+        // Lock before creating the directory, so a directory without a held lock always means a dead owner
+        lockChannel = FileChannel.open(sharedRoot.resolve(instance + LOCK_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (lockChannel.tryLock() == null) {
+            lockChannel.close();
+            throw new IOException("Workspace directory " + sharedRoot.resolve(instance) + " is in use");
+        }
+        root = Files.createDirectories(sharedRoot.resolve(instance));
+        for (int i = 0; i < poolSize; i++) {
+            idle.add(Files.createDirectory(root.resolve(POOLED_PREFIX + i)));
+        }
+        log.info("Workspace pool of {} directories at {}", poolSize, root);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleteQuietly(root);
+        try {
+            Files.deleteIfExists(sharedRoot.resolve(root.getFileName() + LOCK_SUFFIX));
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not release workspace lock for {}", root, e);
+        }
+    }
+
+    private Path createRoot() throws IOException {
+        try {
+            return Files.createDirectories(Paths.get(workspaceDir));
+        } catch (IOException e) {
+            Path fallback = Paths.get(System.getProperty("java.io.tmpdir"), "mockmate-workspaces");
+            log.warn("Workspace dir {} unavailable ({}), falling back to {}", workspaceDir, e.getMessage(), fallback);
+            return Files.createDirectories(fallback);
+        }
+    }
+
+    private void sweepOrphans() throws IOException {
+        List<Path> entries;
+        try (var stream = Files.list(sharedRoot)) {
+            entries = stream.filter(entry -> !entry.getFileName().toString().endsWith(LOCK_SUFFIX)).toList();
+        }
+        for (Path entry : entries) {
+            Path lockFile = sharedRoot.resolve(entry.getFileName() + LOCK_SUFFIX);
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.tryLock()) {
+                if (lock == null) {
+                    continue;
+                }
+                log.info("Sweeping orphaned workspaces {}", entry);
+                deleteQuietly(entry);
+                Files.deleteIfExists(lockFile);
+            } catch (OverlappingFileLockException e) {
+                // Held by another instance inside this JVM
+            }
+        }
+    }
+
+    /**
+     * Hands out an empty directory. When every pooled directory is busy a
+     * one-off directory is created instead of blocking, and removed on close.
+     */
+    public Workspace acquire() throws IOException {
+        Path pooled = idle.poll();
+        if (pooled != null) {
+            return new Workspace(pooled, true);
+        }
+        log.debug("Workspace pool exhausted, creating an overflow directory");
+        return new Workspace(Files.createDirectory(root.resolve(OVERFLOW_PREFIX + UUID.randomUUID())), false);
+    }
+
+    /**
+     * A directory of its own for a holder that keeps it across many runs (scratch
+     * sessions), so long-lived holders never drain the pool. Removed on close.
+     */
+    public Workspace acquireHeld() throws IOException {
+        return new Workspace(Files.createDirectory(root.resolve(HELD_PREFIX + UUID.randomUUID())), false);
+    }
+
+    private void release(Path path, boolean pooled) {
+        if (!pooled) {
+            deleteQuietly(path);
+            return;
+        }
+        try {
+            clear(path);
+            idle.add(path);
+        } catch (IOException e) {
+            // Something in there could not be removed; start over with a fresh directory
+            log.warn("Could not reset workspace {}, replacing it", path, e);
+            deleteQuietly(path);
+            try {
+                idle.add(Files.createDirectories(path));
+            } catch (IOException retry) {
+                log.error("Workspace {} dropped from the pool", path, retry);
+            }
+        }
+    }
+
+    private void clear(Path directory) throws IOException {
+        try (var stream = Files.list(directory)) {
+            for (Path child : stream.toList()) {
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    deleteTree(child);
+                } else {
+                    Files.delete(child);
+                }
+            }
+        }
+    }
+
+    private void deleteTree(Path path) throws IOException {
+        try (var stream = Files.walk(path)) {
+            for (Path p : stream.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            deleteTree(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+
+    /**
+     * A borrowed workspace; closing it resets the directory and returns it to
+     * the pool, so use it in try-with-resources.
+     */
+    public final class Workspace implements AutoCloseable {
+
+        private final Path path;
+        private final boolean pooled;
+        private boolean closed;
+
+        private Workspace(Path path, boolean pooled) {
+            this.path = path;
+            this.pooled = pooled;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /** Empties the directory while keeping it, for holders that run in it repeatedly. */
+        void reset() throws IOException {
+            clear(path);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(path, pooled);
+            }
+        }
+    }
+}
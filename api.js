@@ -72,11 +72,62 @@ export const questionAPI = {
   getBehavioralQuestions: (params = {}) => api.get('/questions/behavioral', { params }),
 };
 
+// Reads a text/event-stream response and calls onEvent(name, data) per event.
+// EventSource cannot send the Authorization header, so the stream is read with
+// fetch instead. Resolves when the server closes the stream.
+const streamEvents = async (path, onEvent, signal) => {
+  const token = localStorage.getItem('token');
+  const response = await fetch(`${API_BASE_URL}${path}`, {
+    headers: {
+      Accept: 'text/event-stream',
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+    signal,
+  });
+  if (response.status === 401) {
+    localStorage.removeItem('token');
+    window.location.href = '/login';
+  }
+  if (!response.ok || !response.body) {
+    throw new Error(`Event stream failed with status ${response.status}`);
+  }
+
+  const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) {
+      return;
+    }
+    buffer = (buffer + value).replace(/\r\n?/g, '\n');
+    // Events end with a blank line; lines starting with ':' are keep-alives
+    let end;
+    while ((end = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+      let name = 'message';
+      const data = [];
+      block.split('\n').forEach((line) => {
+        if (line.startsWith('event:')) {
+          name = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+          data.push(line.slice(5).replace(/^ /, ''));
+        }
+      });
+      if (data.length > 0) {
+        onEvent(name, JSON.parse(data.join('\n')));
+      }
+    }
+  }
+};
+
 // Coding API
 export const codingAPI = {
   submitCode: (submissionData) => api.post('/coding/submit', submissionData),
   getSubmissions: (params = {}) => api.get('/coding/submissions', { params }),
   getSubmission: (id) => api.get(`/coding/submissions/${id}`),
+  streamSubmissionEvents: (id, onEvent, signal) =>
+    streamEvents(`/coding/submissions/${id}/events`, onEvent, signal),
   testCode: (testData) => api.post('/coding/test', testData),
 };
 
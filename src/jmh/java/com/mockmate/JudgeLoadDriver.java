@@ -0,0 +1,257 @@
+package com.mockmate;
+
+import com.mockmate.dto.SubmitCodeRequest;
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.Question;
+import com.mockmate.model.TestCase;
+import com.mockmate.repository.CodingSubmissionRepository;
+import com.mockmate.repository.QuestionRepository;
+import com.mockmate.repository.TestCaseRepository;
+import com.mockmate.service.CodingEvaluationService;
+import com.mockmate.service.JudgeBusyException;
+import com.mockmate.service.SubmissionEvents;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load driver for the judge. Boots the application in-process on
+ * the {@code bench} profile (in-memory H2, locally installed compilers and
+ * runtimes), creates one question per test-case count, then has
+ * {@code bench.concurrency} clients each submit and wait for the verdict until
+ * {@code bench.submissions} have been judged. Languages and test-case counts
+ * are used round-robin. Prints p50/p95/p99 verdict latency per language and
+ * test-case count, overall submissions per second and the peak number of
+ * platform threads, headed by the Java version and core count so a saved
+ * report says what it measured.
+ *
+ * <pre>
+ * java -cp "target/jmh-classes:$BENCH_CP" com.mockmate.JudgeLoadDriver \
+ *     --bench.submissions=500 --bench.concurrency=32 --bench.languages=python,java --bench.test-cases=1,10,50
+ * </pre>
+ *
+ * Any {@code judge.*} setting can be overridden the same way to compare
+ * configurations. The classpath needs H2 for the {@code bench} profile; see
+ * DEPLOYMENT.md (Judge Benchmarks) for compiling this source set.
+ */
+public class JudgeLoadDriver {
+
+    private static final Map<CodingSubmission.ProgrammingLanguage, String> SOLUTIONS =
+            new EnumMap<>(CodingSubmission.ProgrammingLanguage.class);
+
+    static {
+        SOLUTIONS.put(CodingSubmission.ProgrammingLanguage.PYTHON,
+                "a, b = map(int, input().split())\nprint(a + b)\n");
+        SOLUTIONS.put(CodingSubmission.ProgrammingLanguage.JAVASCRIPT,
+                "const [a, b] = require('fs').readFileSync(0, 'utf8').trim().split(/\\s+/).map(Number);\n"
+                        + "console.log(a + b);\n");
+        SOLUTIONS.put(CodingSubmission.ProgrammingLanguage.JAVA,
+                "import java.util.Scanner;\n"
+                        + "public class Solution {\n"
+                        + "    public static void main(String[] args) {\n"
+                        + "        Scanner in = new Scanner(System.in);\n"
+                        + "        System.out.println(in.nextLong() + in.nextLong());\n"
+                        + "    }\n"
+                        + "}\n");
+        SOLUTIONS.put(CodingSubmission.ProgrammingLanguage.CPP,
+                "#include <iostream>\n"
+                        + "int main() { long long a, b; std::cin >> a >> b; std::cout << a + b << std::endl; }\n");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MockMateApplication.class)
+                .profiles("bench")
+                .run(args);
+        try {
+            new JudgeLoadDriver(context).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    private final CodingEvaluationService evaluationService;
+    private final CodingSubmissionRepository submissionRepository;
+    private final QuestionRepository questionRepository;
+    private final TestCaseRepository testCaseRepository;
+
+    private final int submissions;
+    private final int warmup;
+    private final int concurrency;
+    private final String username;
+    private final long timeoutMs;
+    private final List<CodingSubmission.ProgrammingLanguage> languages;
+    private final List<Integer> testCaseCounts;
+
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> verdicts = new ConcurrentHashMap<>();
+    private final AtomicInteger rejections = new AtomicInteger();
+
+    private JudgeLoadDriver(ConfigurableApplicationContext context) {
+        this.evaluationService = context.getBean(CodingEvaluationService.class);
+        this.submissionRepository = context.getBean(CodingSubmissionRepository.class);
+        this.questionRepository = context.getBean(QuestionRepository.class);
+        this.testCaseRepository = context.getBean(TestCaseRepository.class);
+
+        Environment env = context.getEnvironment();
+        this.submissions = env.getProperty("bench.submissions", Integer.class, 200);
+        this.warmup = env.getProperty("bench.warmup", Integer.class, 20);
+        this.concurrency = env.getProperty("bench.concurrency", Integer.class, 16);
+        this.username = env.getProperty("bench.username", "student1");
+        this.timeoutMs = env.getProperty("bench.verdict-timeout-ms", Long.class, 120_000L);
+        this.languages = Arrays.stream(env.getProperty("bench.languages", "python,java,javascript,cpp").split(","))
+                .map(name -> CodingSubmission.ProgrammingLanguage.valueOf(name.trim().toUpperCase()))
+                .toList();
+        this.testCaseCounts = Arrays.stream(env.getProperty("bench.test-cases", "1,10").split(","))
+                .map(count -> Integer.parseInt(count.trim()))
+                .toList();
+    }
+
+    private void run() throws InterruptedException {
+        Map<Integer, Long> questions = new TreeMap<>();
+        for (int count : testCaseCounts) {
+            questions.put(count, createQuestion(count));
+        }
+
+        System.out.printf("Warming up with %d submissions%n", warmup);
+        drive(questions, warmup, false);
+
+        System.out.printf("Judging %d submissions with %d clients: languages %s, test cases %s%n",
+                submissions, concurrency, languages, testCaseCounts);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        long start = System.nanoTime();
+        drive(questions, submissions, true);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        report(seconds);
+    }
+
+    private void drive(Map<Integer, Long> questions, int total, boolean record) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            Thread client = new Thread(() -> {
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        CodingSubmission.ProgrammingLanguage language = languages.get(i % languages.size());
+                        int cases = testCaseCounts.get((i / languages.size()) % testCaseCounts.size());
+                        judgeOne(language, cases, questions.get(cases), record);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-client-" + c);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+    }
+
+    private void judgeOne(CodingSubmission.ProgrammingLanguage language, int cases, Long questionId,
+                          boolean record) throws InterruptedException {
+        SubmitCodeRequest request = new SubmitCodeRequest();
+        request.setQuestionId(questionId);
+        request.setLanguage(language);
+        request.setCode(SOLUTIONS.get(language));
+
+        long start = System.nanoTime();
+        CodingSubmission submission;
+        while (true) {
+            try {
+                submission = evaluationService.submitCode(request, username);
+                break;
+            } catch (JudgeBusyException e) {
+                rejections.incrementAndGet();
+                TimeUnit.SECONDS.sleep(e.getRetryAfterSeconds());
+            }
+        }
+
+        CodingSubmission.SubmissionStatus status = awaitVerdict(submission.getId(), start);
+        if (!record) {
+            return;
+        }
+        String series = language.name().toLowerCase() + " x" + cases;
+        latencies.computeIfAbsent(series, key -> Collections.synchronizedList(new ArrayList<>()))
+                .add(System.nanoTime() - start);
+        String verdict = status != null ? status.name() : "NO_VERDICT";
+        verdicts.computeIfAbsent(series + " " + verdict, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    // Polls the row rather than subscribing, so the driver measures what a client would see
+    private CodingSubmission.SubmissionStatus awaitVerdict(Long id, long start) throws InterruptedException {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (System.nanoTime() < deadline) {
+            CodingSubmission.SubmissionStatus status = submissionRepository.findById(id)
+                    .map(CodingSubmission::getStatus)
+                    .orElse(null);
+            if (status != null && SubmissionEvents.isTerminal(status)) {
+                return status;
+            }
+            TimeUnit.MILLISECONDS.sleep(2);
+        }
+        return null;
+    }
+
+    private Long createQuestion(int cases) {
+        Question question = new Question();
+        question.setTitle("Benchmark: sum of two numbers (" + cases + " cases)");
+        question.setContent("Read two integers from stdin and print their sum.");
+        question.setType(Question.QuestionType.CODING);
+        question.setDifficulty(Question.DifficultyLevel.EASY);
+        question.setCategory(Question.Category.ALGORITHMS);
+        question = questionRepository.save(question);
+        for (int i = 0; i < cases; i++) {
+            long a = i * 7919L;
+            long b = i * 104729L + 1;
+            testCaseRepository.save(new TestCase(question, a + " " + b, String.valueOf(a + b), i > 0, 1));
+        }
+        return question.getId();
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%nJava %s on %d cores%n", Runtime.version(), Runtime.getRuntime().availableProcessors());
+        System.out.printf("%n%-20s %8s %10s %10s %10s%n", "series", "count", "p50 ms", "p95 ms", "p99 ms");
+        List<Long> all = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : new TreeMap<>(latencies).entrySet()) {
+            List<Long> values = entry.getValue();
+            all.addAll(values);
+            printRow(entry.getKey(), values);
+        }
+        printRow("all", all);
+
+        System.out.printf("%nThroughput: %.1f submissions/s (%d in %.1f s)%n", all.size() / seconds, all.size(), seconds);
+        System.out.printf("Rejected by a full queue and retried: %d%n", rejections.get());
+        System.out.printf("Peak platform threads: %d%n", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        System.out.println("Verdicts:");
+        new TreeMap<>(verdicts).forEach((key, count) -> System.out.printf("  %-32s %d%n", key, count.get()));
+    }
+
+    private static void printRow(String series, List<Long> nanos) {
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-20s %8d %10.1f %10.1f %10.1f%n", series, sorted.length,
+                percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 0.99));
+    }
+
+    private static double percentileMs(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
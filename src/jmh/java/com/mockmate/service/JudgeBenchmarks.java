@@ -0,0 +1,171 @@
+package com.mockmate.service;
+
+import com.mockmate.model.Question;
+import com.mockmate.model.TestCaseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH microbenchmarks for the per-case hot paths of {@link CodingEvaluationService}:
+ * output comparison, feedback building and workspace borrow/return. They live
+ * in this package because the classes under test are package-private, but in
+ * the separate {@code src/jmh} source set, so JMH stays out of the backend jar.
+ * The backend build does not compile that source set; DEPLOYMENT.md (Judge
+ * Benchmarks) shows how to compile it into {@code target/jmh-classes} and
+ * assemble {@code BENCH_CP}.
+ *
+ * <pre>
+ * java -cp "target/jmh-classes:$BENCH_CP" org.openjdk.jmh.Main JudgeBenchmarks -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JudgeBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Outputs {
+
+        @Param({"100", "100000"})
+        int lines;
+
+        @Param({"EXACT", "WHITESPACE", "FLOAT_TOLERANCE"})
+        Question.ComparisonMode mode;
+
+        String actual;
+        String expected;
+
+        @Setup
+        public void setUp() {
+            StringBuilder out = new StringBuilder();
+            StringBuilder exp = new StringBuilder();
+            for (int i = 0; i < lines; i++) {
+                out.append(i).append(' ').append(i * 0.5).append('\n');
+                exp.append(i).append(' ').append(i * 0.5).append('\n');
+            }
+            actual = out.toString();
+            expected = exp.toString();
+        }
+    }
+
+    @Benchmark
+    public OutputComparator.Result compareOutput(Outputs outputs) {
+        return OutputComparator.compare(new StringReader(outputs.actual), new StringReader(outputs.expected),
+                outputs.mode, 1e-6);
+    }
+
+    /** What comparison cost before the streaming comparator, for reference. */
+    @Benchmark
+    public boolean compareOutputTrimEquals(Outputs outputs) {
+        return outputs.actual.trim().equals(outputs.expected.trim());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Feedback {
+
+        @Param({"10", "100"})
+        int cases;
+
+        final List<TestCaseResult> caseResults = new ArrayList<>();
+        final List<ExecutionResult> results = new ArrayList<>();
+        final List<OutputComparator.Result> comparisons = new ArrayList<>();
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < cases; i++) {
+                // Every third case fails, alternating wrong answers and runtime errors
+                boolean passed = i % 3 != 0;
+                boolean crashed = !passed && i % 2 == 0;
+                ExecutionResult result = crashed
+                        ? new ExecutionResult(false, "", "Exception in thread \"main\" java.lang.ArithmeticException")
+                        : new ExecutionResult(true, "42", "");
+                OutputComparator.Result comparison = crashed ? null : passed ? OutputComparator.MATCH
+                        : new OutputComparator.Result(false, 3, 7, "42", "41");
+                String verdict = passed ? "Passed" : crashed ? "Runtime error" : "Wrong answer at line 3, column 7";
+                caseResults.add(new TestCaseResult(passed, i % 2 == 0, verdict, 12L, 8L, 20480L));
+                results.add(result);
+                comparisons.add(comparison);
+            }
+        }
+    }
+
+    @Benchmark
+    public String buildFeedback(Feedback feedback) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < feedback.cases; i++) {
+            CodingEvaluationService.appendFeedback(out, feedback.caseResults.get(i), feedback.results.get(i),
+                    feedback.comparisons.get(i));
+        }
+        return out.toString();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Workspaces {
+
+        @Param({"16"})
+        int poolSize;
+
+        WorkspaceManager manager;
+        Path dir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            dir = Files.createTempDirectory("judge-bench-ws");
+            manager = new WorkspaceManager();
+            set(manager, "workspaceDir", dir.toString());
+            set(manager, "poolSize", poolSize);
+            manager.init();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            manager.shutdown();
+            try (var stream = Files.walk(dir)) {
+                for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /** Borrow a workspace, write a solution and a compiled file into it, and return it. */
+    @Benchmark
+    public Path workspaceRoundTrip(Workspaces workspaces) throws IOException {
+        try (WorkspaceManager.Workspace workspace = workspaces.manager.acquire()) {
+            Path source = Files.writeString(workspace.getPath().resolve("solution.py"), "print(input())\n");
+            Files.createDirectory(workspace.getPath().resolve("out"));
+            Files.writeString(workspace.getPath().resolve("out").resolve("Solution.class"), "stub");
+            return source;
+        }
+    }
+
+    // The @Value fields are private and there is no Spring context here
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mockmate.service;
+
+import com.mockmate.model.JudgePriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JudgeQueueTest {
+
+    private final List<String> order = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private JudgeQueue queue;
+
+    // A single worker held by a blocking job, so everything submitted after it waits in the queue
+    private void start(int capacity, long practiceHandicapMs) throws InterruptedException {
+        queue = new JudgeQueue(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queue, "workers", 1);
+        ReflectionTestUtils.setField(queue, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(queue, "retryAfterSeconds", 5);
+        ReflectionTestUtils.setField(queue, "practiceHandicapMs", practiceHandicapMs);
+        ReflectionTestUtils.setField(queue, "scratchHandicapMs", 30_000L);
+        ReflectionTestUtils.setField(queue, "rejudgeHandicapMs", 300_000L);
+        queue.start();
+
+        CountDownLatch running = new CountDownLatch(1);
+        queue.submit(JudgePriority.INTERVIEW, () -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+    }
+
+    private void submit(JudgePriority priority, String name) {
+        queue.submit(priority, () -> order.add(name));
+    }
+
+    private List<String> drain() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        // Ranks behind everything queued so far
+        queue.submit(JudgePriority.REJUDGE, done::countDown);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return order;
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        release.countDown();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void higherClassesRunFirst() throws InterruptedException {
+        start(100, 15_000);
+        submit(JudgePriority.REJUDGE, "rejudge");
+        submit(JudgePriority.SCRATCH, "scratch");
+        submit(JudgePriority.PRACTICE, "practice");
+        submit(JudgePriority.INTERVIEW, "interview");
+
+        assertEquals(List.of("interview", "practice", "scratch", "rejudge"), drain());
+    }
+
+    @Test
+    void sameClassRunsInArrivalOrder() throws InterruptedException {
+        start(100, 15_000);
+        submit(JudgePriority.PRACTICE, "first");
+        submit(JudgePriority.PRACTICE, "second");
+        submit(JudgePriority.PRACTICE, "third");
+
+        assertEquals(List.of("first", "second", "third"), drain());
+    }
+
+    @Test
+    void workThatWaitedPastItsHandicapOvertakesNewerHigherClassWork() throws InterruptedException {
+        start(100, 50);
+        submit(JudgePriority.PRACTICE, "practice");
+        Thread.sleep(200);
+        submit(JudgePriority.INTERVIEW, "interview");
+
+        assertEquals(List.of("practice", "interview"), drain());
+    }
+
+    @Test
+    void fullQueueRejectsWork() throws InterruptedException {
+        start(2, 15_000);
+        submit(JudgePriority.PRACTICE, "first");
+        submit(JudgePriority.PRACTICE, "second");
+
+        JudgeBusyException e = assertThrows(JudgeBusyException.class,
+                () -> submit(JudgePriority.INTERVIEW, "rejected"));
+        assertEquals(5, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void handicapMatchesConfiguration() throws InterruptedException {
+        start(100, 15_000);
+
+        assertEquals(0, queue.handicap(JudgePriority.INTERVIEW).toMillis());
+        assertEquals(15_000, queue.handicap(JudgePriority.PRACTICE).toMillis());
+        assertEquals(30_000, queue.handicap(JudgePriority.SCRATCH).toMillis());
+        assertEquals(300_000, queue.handicap(JudgePriority.REJUDGE).toMillis());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mockmate.service;
+
+import com.mockmate.model.Question;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputComparatorTest {
+
+    private static OutputComparator.Result compare(String actual, String expected, Question.ComparisonMode mode) {
+        return compare(actual, expected, mode, 1e-6);
+    }
+
+    private static OutputComparator.Result compare(String actual, String expected, Question.ComparisonMode mode,
+                                                   double tolerance) {
+        return OutputComparator.compare(new StringReader(actual), new StringReader(expected), mode, tolerance);
+    }
+
+    // Hands out one character per read, so every comparison crosses buffer refills
+    private static Reader trickle(String text) {
+        return new StringReader(text) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+    }
+
+    @Test
+    void exactIgnoresOnlyLeadingAndTrailingWhitespace() {
+        assertTrue(compare("  1 2\n3\n\n", "1 2\n3", Question.ComparisonMode.EXACT).matched());
+        assertFalse(compare("1  2\n3", "1 2\n3", Question.ComparisonMode.EXACT).matched());
+        assertFalse(compare("1 2\r\n3", "1 2\n3", Question.ComparisonMode.EXACT).matched());
+        assertTrue(compare("", "  \n", Question.ComparisonMode.EXACT).matched());
+    }
+
+    @Test
+    void exactReportsTheFirstDifferenceInTheProgramOutput() {
+        OutputComparator.Result result = compare("abc\nxyz\n", "abc\nxyq\n", Question.ComparisonMode.EXACT);
+
+        assertFalse(result.matched());
+        assertEquals(2, result.line());
+        assertEquals(3, result.column());
+        assertEquals("q", result.expected());
+        assertEquals("z", result.actual());
+        assertEquals("Mismatch at line 2, column 3: expected \"q\", got \"z\"", result.describe());
+    }
+
+    @Test
+    void exactReportsMissingAndExtraOutput() {
+        OutputComparator.Result missing = compare("1\n2", "1\n2\n3", Question.ComparisonMode.EXACT);
+        OutputComparator.Result extra = compare("1\n2\n3", "1\n2", Question.ComparisonMode.EXACT);
+
+        assertFalse(missing.matched());
+        assertTrue(missing.describe().endsWith("got <end of output>"), missing.describe());
+        assertFalse(extra.matched());
+        assertTrue(extra.describe().contains("expected <end of output>"), extra.describe());
+    }
+
+    @Test
+    void whitespaceModeMatchesAnyRunOfWhitespace() {
+        assertTrue(compare("1   2\r\n\t3\n", "1 2 3", Question.ComparisonMode.WHITESPACE).matched());
+        assertFalse(compare("1 2 3 4", "1 2 3", Question.ComparisonMode.WHITESPACE).matched());
+        assertFalse(compare("12 3", "1 2 3", Question.ComparisonMode.WHITESPACE).matched());
+    }
+
+    @Test
+    void whitespaceModeComparesNumbersAsText() {
+        assertFalse(compare("1.0", "1", Question.ComparisonMode.WHITESPACE).matched());
+    }
+
+    @Test
+    void floatToleranceIsAbsoluteOrRelative() {
+        assertTrue(compare("0.3333333", "0.33333333", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+        assertTrue(compare("1.0 2", "1 2.0000001", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+        assertTrue(compare("1000000.5", "1000000", Question.ComparisonMode.FLOAT_TOLERANCE, 1e-6).matched());
+        assertFalse(compare("0.334", "0.333", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+        assertTrue(compare("1e3", "1000", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+    }
+
+    @Test
+    void floatToleranceComparesOtherTokensAsText() {
+        assertTrue(compare("YES 0.5", "YES 0.5000001", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+        assertFalse(compare("yes 0.5", "YES 0.5", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+        assertFalse(compare("NaN", "NaN1", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+    }
+
+    @Test
+    void longTokensAreComparedPastTheNumberLimit() {
+        String token = "x".repeat(10_000);
+
+        assertTrue(compare(token + " 1", token + " 1", Question.ComparisonMode.FLOAT_TOLERANCE).matched());
+        assertFalse(compare(token + "y", token + "z", Question.ComparisonMode.WHITESPACE).matched());
+        assertFalse(compare(token, token + "z", Question.ComparisonMode.WHITESPACE).matched());
+    }
+
+    @Test
+    void comparisonIsIndependentOfReadSizes() {
+        String expected = "line one\n" + "7 ".repeat(5_000) + "\nlast";
+        for (Question.ComparisonMode mode : Question.ComparisonMode.values()) {
+            assertTrue(OutputComparator.compare(trickle(expected), new StringReader(expected), mode, 1e-6).matched());
+            OutputComparator.Result result = OutputComparator.compare(
+                    trickle(expected.replace("last", "lost")), trickle(expected), mode, 1e-6);
+            assertFalse(result.matched());
+            assertEquals(3, result.line());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.mockmate.service;
+
+import com.mockmate.model.CodingSubmission;
+import com.mockmate.model.Question;
+import com.mockmate.model.TestCase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class VerdictCacheTest {
+
+    private static final String CODE = "public class Solution {\n    public static void main(String[] args) {\n"
+            + "        System.out.println(\"a  b\");\n    }\n}\n";
+
+    private final VerdictCache cache = new VerdictCache(new SimpleMeterRegistry());
+
+    private String key(String code, List<TestCase> testCases) {
+        return key(code, testCases, Question.ComparisonMode.EXACT, 0.0);
+    }
+
+    private String key(String code, List<TestCase> testCases, Question.ComparisonMode mode, double tolerance) {
+        return cache.key(7L, CodingSubmission.ProgrammingLanguage.JAVA, code, testCases,
+                CodingSubmission.EvaluationPolicy.RUN_ALL, mode, tolerance);
+    }
+
+    private static TestCase testCase(long id, String input, String expectedOutput) {
+        TestCase testCase = new TestCase();
+        testCase.setId(id);
+        testCase.setInput(input);
+        testCase.setExpectedOutput(expectedOutput);
+        return testCase;
+    }
+
+    @Test
+    void crlfAndLfSourcesShareAKey() {
+        List<TestCase> testCases = List.of(testCase(1, "1", "2"));
+
+        assertEquals(key(CODE, testCases), key(CODE.replace("\n", "\r\n"), testCases));
+    }
+
+    @Test
+    void otherWhitespaceIsPartOfTheKey() {
+        List<TestCase> testCases = List.of(testCase(1, "1", "2"));
+
+        assertNotEquals(key(CODE, testCases), key(CODE.replace("a  b", "a b"), testCases));
+        assertNotEquals(key(CODE, testCases), key(CODE.replace("\n", "\n\t"), testCases));
+        assertNotEquals(key(CODE, testCases), key(CODE + "\n", testCases));
+    }
+
+    @Test
+    void everyJudgingInputIsPartOfTheKey() {
+        List<TestCase> testCases = List.of(testCase(1, "1", "2"));
+        String base = key(CODE, testCases);
+
+        assertNotEquals(base, cache.key(8L, CodingSubmission.ProgrammingLanguage.JAVA, CODE, testCases,
+                CodingSubmission.EvaluationPolicy.RUN_ALL, Question.ComparisonMode.EXACT, 0.0));
+        assertNotEquals(base, cache.key(7L, CodingSubmission.ProgrammingLanguage.PYTHON, CODE, testCases,
+                CodingSubmission.EvaluationPolicy.RUN_ALL, Question.ComparisonMode.EXACT, 0.0));
+        assertNotEquals(base, cache.key(7L, CodingSubmission.ProgrammingLanguage.JAVA, CODE, testCases,
+                CodingSubmission.EvaluationPolicy.FAIL_FAST, Question.ComparisonMode.EXACT, 0.0));
+        assertNotEquals(base, key(CODE, testCases, Question.ComparisonMode.WHITESPACE, 0.0));
+        assertNotEquals(key(CODE, testCases, Question.ComparisonMode.FLOAT_TOLERANCE, 1e-6),
+                key(CODE, testCases, Question.ComparisonMode.FLOAT_TOLERANCE, 1e-3));
+    }
+
+    @Test
+    void editingATestCaseChangesTheKey() {
+        String base = key(CODE, List.of(testCase(1, "1", "2"), testCase(2, "3", "4")));
+
+        assertEquals(base, key(CODE, List.of(testCase(1, "1", "2"), testCase(2, "3", "4"))));
+        assertNotEquals(base, key(CODE, List.of(testCase(1, "1", "2"), testCase(2, "3", "5"))));
+        assertNotEquals(base, key(CODE, List.of(testCase(1, "1", "2"), testCase(2, "4", "4"))));
+        assertNotEquals(base, key(CODE, List.of(testCase(1, "1", "2"))));
+        assertNotEquals(base, key(CODE, List.of(testCase(1, "1", "2"), testCase(3, "3", "4"))));
+    }
+
+    @Test
+    void testCaseFieldsDoNotRunTogether() {
+        assertNotEquals(key(CODE, List.of(testCase(1, "12", "3"))), key(CODE, List.of(testCase(1, "1", "23"))));
+    }
+
+    @Test
+    void storedTestCasesAreKeyedByHash() {
+        TestCase stored = testCase(1, null, null);
+        stored.setInputHash("a".repeat(64));
+        stored.setExpectedOutputHash("b".repeat(64));
+        TestCase restored = testCase(1, "ignored", "ignored");
+        restored.setInputHash("a".repeat(64));
+        restored.setExpectedOutputHash("b".repeat(64));
+        TestCase edited = testCase(1, null, null);
+        edited.setInputHash("a".repeat(64));
+        edited.setExpectedOutputHash("c".repeat(64));
+
+        assertEquals(key(CODE, List.of(stored)), key(CODE, List.of(restored)));
+        assertNotEquals(key(CODE, List.of(stored)), key(CODE, List.of(edited)));
+    }
+}